@@ -4,10 +4,24 @@ USE short_url_db;
 CREATE TABLE short_url
 (
     id          BIGINT PRIMARY KEY AUTO_INCREMENT,
-    short_code  VARCHAR(10) NOT NULL UNIQUE,
+    short_code  VARCHAR(64) NOT NULL UNIQUE,
     long_url    TEXT        NOT NULL,
     created_at  DATETIME    NOT NULL,
     visit_count BIGINT DEFAULT 0,
     expire_at   DATETIME    NULL,
-    INDEX idx_short_code (short_code)
-);
\ No newline at end of file
+    INDEX idx_short_code (short_code),
+    INDEX idx_expire_at (expire_at)
+);
+
+-- 过期链接归档表，id 与原 short_url 记录相同；同一短码可能先后被分配多次，因此不唯一
+CREATE TABLE short_url_archive
+(
+    id          BIGINT PRIMARY KEY,
+    short_code  VARCHAR(64) NOT NULL,
+    long_url    TEXT        NOT NULL,
+    created_at  DATETIME    NOT NULL,
+    visit_count BIGINT DEFAULT 0,
+    expire_at   DATETIME    NULL,
+    archived_at DATETIME    NOT NULL,
+    INDEX idx_archive_short_code (short_code)
+) ROW_FORMAT = COMPRESSED;
\ No newline at end of file
@@ -0,0 +1,9 @@
+-- 为已有部署放宽 short_code 列宽以支持自定义别名（short-url.alias.max-length 不应超过该列宽）
+-- 归档表的列宽由 migrate_archive.sql 处理
+--
+-- 注意：分区表布局（migrate_partitioned.sql）下 short_url 已没有 short_code 唯一键，
+-- 短码（含别名）唯一性由 short_code_registry 主键保证，该表创建时即为 VARCHAR(64)，本脚本在分区迁移前后执行均可
+USE short_url_db;
+
+ALTER TABLE short_url
+    MODIFY short_code VARCHAR(64) NOT NULL;
@@ -0,0 +1,47 @@
+-- 为已有部署创建过期链接归档表（short-url.archive.enabled=true 时使用）
+-- 开启归档后过期链接连同访问次数迁移到该表，热表 short_url 只保留有效链接
+--
+-- 注意：
+-- 1. ROW_FORMAT=COMPRESSED 需要 innodb_file_per_table=ON（MySQL 8.0 默认开启）
+-- 2. 归档表未创建时清理任务会报错并保留过期链接，不会丢失数据
+-- 3. short_code 与 short_url 一致为 VARCHAR(64)，自定义别名归档时不会被截断
+-- 4. 脚本可重复执行：expire_at 上已有索引（新版 init.sql 已包含 idx_expire_at）时不再创建；
+--    已按 migrate_partitioned.sql 分区的表以 expire_at 为分区键，过期链接随整个分区归档，不需要该索引
+USE short_url_db;
+
+CREATE TABLE IF NOT EXISTS short_url_archive
+(
+    id          BIGINT PRIMARY KEY,
+    short_code  VARCHAR(64) NOT NULL,
+    long_url    TEXT        NOT NULL,
+    created_at  DATETIME    NOT NULL,
+    visit_count BIGINT DEFAULT 0,
+    expire_at   DATETIME    NULL,
+    archived_at DATETIME    NOT NULL,
+    INDEX idx_archive_short_code (short_code)
+) ROW_FORMAT = COMPRESSED;
+
+-- 早期版本的本脚本以 VARCHAR(10) 创建了 short_code，已创建的归档表同样放宽
+ALTER TABLE short_url_archive
+    MODIFY short_code VARCHAR(64) NOT NULL;
+
+-- 周期归档按 expire_at 查找过期链接
+SELECT EXISTS(SELECT 1
+              FROM information_schema.statistics
+              WHERE table_schema = DATABASE()
+                AND table_name = 'short_url'
+                AND column_name = 'expire_at'
+                AND seq_in_index = 1)
+           OR EXISTS(SELECT 1
+                     FROM information_schema.partitions
+                     WHERE table_schema = DATABASE()
+                       AND table_name = 'short_url'
+                       AND partition_name IS NOT NULL)
+INTO @skip_expire_index;
+
+SET @ddl = IF(@skip_expire_index,
+              'DO 0',
+              'CREATE INDEX idx_expire_at ON short_url (expire_at)');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
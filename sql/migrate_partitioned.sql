@@ -0,0 +1,94 @@
+-- 将 init.sql 创建的 short_url 表迁移为按 expire_at 范围分区的布局（MySQL 8.0+）
+-- 迁移时一次性建好按天/按周的分区，之后由 PartitionManager 每天预建新分区，并按整分区 DROP/TRUNCATE 清理过期链接
+--
+-- 注意：
+-- 1. MySQL要求分区列包含在所有唯一键中，分区表上无法保留 short_code 单列唯一键。
+--    短码唯一性改由未分区的 short_code_registry 表保证：short_url 的触发器在插入时同步写入注册表，
+--    注册表主键冲突会使整条插入失败（与原唯一键一样返回 Duplicate entry），删除行时同步删除；
+--    DROP/TRUNCATE 分区不会触发触发器，由 PartitionManager 在清理分区后删除对应的注册记录
+-- 2. 主键列不能为NULL，永不过期的链接使用哨兵值 9999-12-31 存放在 p_never 分区，该分区永远不会被清理
+-- 3. 迁移会重建整表，请先备份并在维护窗口内用命令行客户端执行（不受应用的语句超时限制）；
+--    创建触发器需要 TRIGGER 权限，开启binlog时还需要 log_bin_trust_function_creators 或 SUPER 权限
+-- 4. @granularity 与 @future_count 须与 short-url.partition.granularity / future-count 保持一致
+USE short_url_db;
+
+SET @granularity = 'DAY';   -- DAY 或 WEEK
+SET @future_count = 14;
+
+UPDATE short_url
+SET expire_at = '9999-12-31 00:00:00'
+WHERE expire_at IS NULL;
+
+CREATE TABLE short_code_registry
+(
+    short_code VARCHAR(64) NOT NULL PRIMARY KEY,
+    expire_at  DATETIME    NOT NULL,
+    INDEX idx_registry_expire_at (expire_at)
+);
+
+INSERT INTO short_code_registry (short_code, expire_at)
+SELECT short_code, expire_at
+FROM short_url;
+
+CREATE TRIGGER trg_short_url_register
+    AFTER INSERT
+    ON short_url
+    FOR EACH ROW
+    INSERT INTO short_code_registry (short_code, expire_at)
+    VALUES (NEW.short_code, NEW.expire_at);
+
+CREATE TRIGGER trg_short_url_unregister
+    AFTER DELETE
+    ON short_url
+    FOR EACH ROW
+    DELETE
+    FROM short_code_registry
+    WHERE short_code = OLD.short_code;
+
+ALTER TABLE short_url
+    MODIFY expire_at DATETIME NOT NULL DEFAULT '9999-12-31 00:00:00',
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, expire_at),
+    DROP INDEX short_code;
+
+-- 预建分区的终点：与 PartitionManager 相同的 today + future_count 个粒度单位，
+-- 且覆盖现有链接的最晚过期时间，保证 p_future 为空，之后拆分 p_future 不需要搬移数据
+SET @horizon = GREATEST(
+        IF(@granularity = 'WEEK',
+           CURDATE() - INTERVAL WEEKDAY(CURDATE()) DAY + INTERVAL @future_count WEEK,
+           CURDATE() + INTERVAL @future_count DAY),
+        COALESCE((SELECT DATE(MAX(expire_at)) + INTERVAL 1 DAY FROM short_url WHERE expire_at < '9999-01-01'),
+                 CURDATE()));
+
+SET SESSION group_concat_max_len = 1024 * 1024;
+SET SESSION cte_max_recursion_depth = 10000;
+
+-- 分区以下界日期命名，上界为下一个粒度边界；按周分区时第一个分区截止到下周一，之后每个分区都从周一开始
+WITH RECURSIVE bounds (lower_bound, upper_bound) AS (
+    SELECT CURDATE(),
+           IF(@granularity = 'WEEK', CURDATE() + INTERVAL (7 - WEEKDAY(CURDATE())) DAY, CURDATE() + INTERVAL 1 DAY)
+    UNION ALL
+    SELECT upper_bound,
+           upper_bound + INTERVAL IF(@granularity = 'WEEK', 7, 1) DAY
+    FROM bounds
+    WHERE upper_bound < @horizon
+)
+SELECT GROUP_CONCAT(CONCAT('PARTITION p', DATE_FORMAT(lower_bound, '%Y%m%d'),
+                           ' VALUES LESS THAN (''', DATE_FORMAT(upper_bound, '%Y-%m-%d 00:00:00'), ''')')
+                    ORDER BY lower_bound SEPARATOR ', ')
+INTO @partitions
+FROM bounds;
+
+-- p_history: 迁移时已存在、在今天之前过期的链接，整体过期后由 PartitionManager 清理
+-- pYYYYMMDD: 按天/按周的分区
+-- p_future:  兜底分区，正常情况下为空，PartitionManager 每天从中拆分出新分区
+-- p_never:   永不过期的链接
+SET @ddl = CONCAT(
+        'ALTER TABLE short_url PARTITION BY RANGE COLUMNS (expire_at) (',
+        'PARTITION p_history VALUES LESS THAN (''', DATE_FORMAT(CURDATE(), '%Y-%m-%d 00:00:00'), '''), ',
+        @partitions, ', ',
+        'PARTITION p_future VALUES LESS THAN (''9999-01-01 00:00:00''), ',
+        'PARTITION p_never VALUES LESS THAN (MAXVALUE))');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,28 @@
+package com.example.shorturl.config;
+
+import com.example.shorturl.util.CreateJournal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * 异步创建模式配置
+ * 开启后创建短链接只需写入本地日志即可返回，由 AsyncCreateWriter 批量写入数据库
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "short-url.async-create", name = "enabled", havingValue = "true")
+public class AsyncCreateConfig {
+
+    /**
+     * 本地追加日志，关闭由 AsyncCreateWriter 在写完剩余记录后负责
+     */
+    @Bean(destroyMethod = "")
+    public CreateJournal createJournal(@Value("${short-url.async-create.journal-path:data/create.journal}") String journalPath,
+                                       @Value("${short-url.async-create.max-group-size:256}") int maxGroupSize) throws IOException {
+        return new CreateJournal(Paths.get(journalPath), maxGroupSize);
+    }
+}
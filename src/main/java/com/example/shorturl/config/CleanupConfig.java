@@ -3,13 +3,17 @@ package com.example.shorturl.config;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.example.shorturl.mapper.ShortUrlMapper;
 import com.example.shorturl.model.ShortUrl;
+import com.example.shorturl.service.ArchiveService;
+import com.example.shorturl.util.Bulkhead;
+import com.example.shorturl.util.CircuitBreaker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.scheduling.annotation.EnableScheduling;
-import org.springframework.scheduling.annotation.Scheduled;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -18,9 +22,10 @@ import java.util.Set;
 /**
  * 定时清理配置类
  * 负责清理过期的短链接和相关缓存
+ * 仅管理接口和定时任务使用，延迟到第一次调用时才初始化，不占用节点启动时间；定时触发见 CleanupScheduler
  */
 @Configuration
-@EnableScheduling
+@Lazy
 public class CleanupConfig {
     
     private static final Logger logger = LoggerFactory.getLogger(CleanupConfig.class);
@@ -31,17 +36,62 @@ public class CleanupConfig {
     @Autowired
     private RedisTemplate<String, String> redisTemplate;
 
+    @Autowired
+    private PartitionManager partitionManager;
+
+    @Autowired
+    @Qualifier("adminBulkhead")
+    private Bulkhead adminBulkhead;
+
+    @Autowired
+    @Qualifier("mysqlCircuitBreaker")
+    private CircuitBreaker mysqlCircuitBreaker;
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Value("${short-url.archive.max-rows-per-run:50000}") // 周期归档单次最多处理的行数
+    private long archiveMaxRowsPerRun;
+
     /**
      * 定时清理过期链接
      * 每天凌晨2点执行，避开业务高峰期
      */
-    @Scheduled(cron = "0 0 2 * * ?")
     public void cleanupExpiredLinks() {
+        // MySQL熔断中时不再加重数据库负担
+        if (!mysqlCircuitBreaker.isCallPermitted()) {
+            logger.warn("MySQL熔断中，跳过本次过期链接清理");
+            return;
+        }
+        
+        try {
+            // 清理任务在独立隔离舱中执行，不占用重定向请求的数据库并发
+            adminBulkhead.run(this::doCleanupExpiredLinks);
+        } catch (Exception e) {
+            logger.error("清理过期链接时发生错误", e);
+        }
+    }
+    
+    private void doCleanupExpiredLinks() {
         logger.info("开始执行过期链接清理任务...");
         
         try {
             LocalDateTime currentTime = LocalDateTime.now();
             
+            // 分区表布局下直接删除整体过期的分区
+            if (partitionManager.isActive()) {
+                int purged = partitionManager.purgeExpiredPartitions(currentTime);
+                logger.info("过期分区清理完成 - 清理分区: {} 个", purged);
+                return;
+            }
+            
+            // 开启归档时过期链接迁移到归档表（保留访问次数），而不是直接删除
+            if (archiveService.isEnabled()) {
+                long archived = archiveService.archiveExpired(currentTime, Long.MAX_VALUE);
+                logger.info("过期链接归档完成 - 归档: {} 条", archived);
+                return;
+            }
+            
             // 1. 查询即将过期的链接（用于清理Redis缓存）
             List<ShortUrl> expiredLinks = getExpiredLinks(currentTime);
             
@@ -66,10 +116,30 @@ public class CleanupConfig {
         }
     }
     
+    /**
+     * 周期归档过期链接，让热表只保留有效链接，不必等到夜间清理
+     * 分区表布局下过期链接随整个分区归档和删除，这里不处理
+     */
+    public void archiveExpiredLinks() {
+        if (!archiveService.isEnabled() || partitionManager.isActive()) {
+            return;
+        }
+        if (!mysqlCircuitBreaker.isCallPermitted()) {
+            logger.warn("MySQL熔断中，跳过本次过期链接归档");
+            return;
+        }
+        
+        try {
+            adminBulkhead.run(() -> archiveService.archiveExpired(LocalDateTime.now(), archiveMaxRowsPerRun));
+        } catch (Exception e) {
+            logger.error("归档过期链接时发生错误", e);
+        }
+    }
+    
     /**
      * 手动触发清理任务（用于测试或紧急清理）
+     * 每小时检查一次
      */
-    @Scheduled(fixedRate = 3600000) // 每小时检查一次
     public void hourlyCleanupCheck() {
         logger.debug("执行每小时清理检查...");
         
@@ -164,6 +234,15 @@ public class CleanupConfig {
      * 获取清理统计信息
      */
     public CleanupStats getCleanupStats() {
+        try {
+            return adminBulkhead.call(this::queryCleanupStats);
+        } catch (Exception e) {
+            logger.error("获取清理统计信息时发生错误", e);
+            return new CleanupStats(0, 0, 0);
+        }
+    }
+    
+    private CleanupStats queryCleanupStats() {
         try {
             LocalDateTime now = LocalDateTime.now();
             
@@ -0,0 +1,46 @@
+package com.example.shorturl.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 清理任务的定时触发器
+ * 懒加载的Bean上的 @Scheduled 只有在Bean初始化后才会注册，因此定时入口放在这里，
+ * 通过懒加载代理调用 CleanupConfig，到第一次触发时才真正创建清理相关的Bean
+ */
+@Component
+@EnableScheduling
+public class CleanupScheduler {
+
+    @Autowired
+    @Lazy
+    private CleanupConfig cleanupConfig;
+
+    /**
+     * 每天凌晨2点清理过期链接，避开业务高峰期
+     */
+    @Scheduled(cron = "0 0 2 * * ?")
+    public void cleanupExpiredLinks() {
+        cleanupConfig.cleanupExpiredLinks();
+    }
+
+    /**
+     * 周期归档过期链接，保持热表精简
+     */
+    @Scheduled(fixedDelayString = "${short-url.archive.interval-ms:600000}",
+            initialDelayString = "${short-url.archive.interval-ms:600000}")
+    public void archiveExpiredLinks() {
+        cleanupConfig.archiveExpiredLinks();
+    }
+
+    /**
+     * 每小时检查一次严重过期的链接；首次检查推迟一个周期，不在扩容节点启动时查询数据库
+     */
+    @Scheduled(fixedRate = 3600000, initialDelay = 3600000)
+    public void hourlyCleanupCheck() {
+        cleanupConfig.hourlyCleanupCheck();
+    }
+}
@@ -0,0 +1,319 @@
+package com.example.shorturl.config;
+
+import com.example.shorturl.mapper.ShortUrlMapper;
+import com.example.shorturl.model.PartitionInfo;
+import com.example.shorturl.service.ArchiveService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 分区管理器
+ * 在 sql/migrate_partitioned.sql 迁移后的分区表布局下，负责预建未来分区，
+ * 并以整分区 DROP/TRUNCATE 的方式清理过期链接，避免逐行 DELETE 产生大量 undo/redo 日志和表碎片。
+ * 整分区清理不会触发 short_url 上的触发器，清理后由这里删除 short_code_registry 中对应的短码注册记录。
+ * 非MySQL数据库或未分区的表上不生效，CleanupConfig 会回退到 deleteExpired
+ */
+@Component
+public class PartitionManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartitionManager.class);
+
+    static final String FUTURE_PARTITION = "p_future";
+    static final String NEVER_PARTITION = "p_never";
+
+    // 永不清理的分区：兜底分区和永不过期链接所在分区
+    private static final Set<String> RESERVED_PARTITIONS = Set.of(FUTURE_PARTITION, NEVER_PARTITION);
+
+    // 分区名会拼接进DDL，只允许字母数字下划线
+    private static final Pattern PARTITION_NAME = Pattern.compile("^p_?\\w{1,60}$");
+
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter BOUND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    static final String HISTORY_PARTITION = "p_history";
+
+    private static final int INVALIDATE_BATCH_SIZE = 500;
+
+    private static final int UNREGISTER_BATCH_SIZE = 5000;
+
+    @Autowired
+    private ShortUrlMapper shortUrlMapper;
+
+    @Autowired
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Value("${short-url.partition.enabled:false}")
+    private boolean enabled;
+
+    @Value("${short-url.partition.granularity:DAY}") // DAY 或 WEEK
+    private Granularity granularity;
+
+    @Value("${short-url.partition.future-count:14}") // 预建的未来分区数量，应大于链接有效期
+    private int futureCount;
+
+    @Value("${short-url.partition.purge-mode:DROP}") // DROP 或 TRUNCATE
+    private PurgeMode purgeMode;
+
+    private volatile Boolean active;
+
+    public enum Granularity { DAY, WEEK }
+
+    public enum PurgeMode { DROP, TRUNCATE }
+
+    /**
+     * 当前是否使用分区表布局：需要开启配置、数据库为MySQL且表已分区
+     */
+    public boolean isActive() {
+        if (active == null) {
+            active = enabled && detectPartitionedTable();
+        }
+        return active;
+    }
+
+    /**
+     * 启动时及每天凌晨1点预建未来分区
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 0 1 * * ?")
+    public void ensureFuturePartitions() {
+        if (!isActive()) {
+            return;
+        }
+        try {
+            List<PartitionInfo> toCreate = planFuturePartitions(
+                    shortUrlMapper.selectPartitions(), LocalDate.now(), granularity, futureCount);
+            if (toCreate.isEmpty()) {
+                return;
+            }
+            if (shortUrlMapper.partitionHasRows(FUTURE_PARTITION)) {
+                // 迁移脚本预建分区后 p_future 应为空，有数据说明 future-count 小于链接有效期
+                logger.warn("{} 分区中有数据，拆分时需要搬移这些行，请调大 short-url.partition.future-count", FUTURE_PARTITION);
+            }
+            shortUrlMapper.reorganizeFuturePartition(toCreate);
+            logger.info("预建分区 {} 个: {} ~ {}", toCreate.size(),
+                    toCreate.get(0).getName(), toCreate.get(toCreate.size() - 1).getName());
+        } catch (Exception e) {
+            logger.error("预建分区时发生错误", e);
+        }
+    }
+
+    /**
+     * 清理所有已整体过期的分区：开启归档时先将分区内的链接分批写入归档表，
+     * 再流式读取分区内短码清理Redis缓存，最后删除分区；归档失败的分区保留到下次重试。
+     * 已经为空的分区跳过归档和清空；TRUNCATE 模式下清空后的分区合并进 p_history，避免空分区越积越多
+     *
+     * @return 清理的分区数量
+     */
+    public int purgeExpiredPartitions(LocalDateTime currentTime) {
+        List<PartitionInfo> expired = expiredPartitions(shortUrlMapper.selectPartitions(), currentTime);
+        // 从第一个过期分区起连续清理成功的分区，只有这些分区的短码注册记录可以删除、可以合并
+        List<PartitionInfo> cleared = new ArrayList<>();
+        boolean contiguous = true;
+        int purged = 0;
+        for (PartitionInfo partition : expired) {
+            String name = partition.getName();
+            try {
+                if (shortUrlMapper.partitionHasRows(name)) {
+                    if (archiveService.isEnabled()) {
+                        archiveService.archivePartition(name);
+                    }
+                    long invalidated = invalidatePartitionCache(name);
+                    if (purgeMode == PurgeMode.TRUNCATE) {
+                        shortUrlMapper.truncatePartition(name);
+                    }
+                    logger.info("已清理过期分区 {} 的缓存 {} 条", name, invalidated);
+                    purged++;
+                }
+                if (purgeMode == PurgeMode.DROP) {
+                    shortUrlMapper.dropPartition(name);
+                    logger.info("已删除过期分区 {}", name);
+                }
+                if (contiguous) {
+                    cleared.add(partition);
+                }
+            } catch (Exception e) {
+                contiguous = false;
+                logger.error("清理分区 {} 时发生错误", name, e);
+            }
+        }
+        if (!cleared.isEmpty()) {
+            LocalDateTime clearedBefore = upperBound(cleared.get(cleared.size() - 1));
+            unregisterCodesBefore(clearedBefore);
+            if (purgeMode == PurgeMode.TRUNCATE && cleared.size() > 1) {
+                mergeIntoHistory(cleared, clearedBefore);
+            }
+        }
+        return purged;
+    }
+
+    /**
+     * 分批删除已清理分区对应的短码注册记录，释放这些短码的唯一性占用
+     */
+    private void unregisterCodesBefore(LocalDateTime bound) {
+        try {
+            long total = 0;
+            int deleted;
+            do {
+                deleted = shortUrlMapper.deleteRegisteredCodesBefore(bound, UNREGISTER_BATCH_SIZE);
+                total += deleted;
+            } while (deleted >= UNREGISTER_BATCH_SIZE);
+            logger.info("已删除 {} 之前过期的短码注册记录 {} 条", bound, total);
+        } catch (Exception e) {
+            // 注册记录残留只会让这些短码暂时无法复用，下次清理时一并删除
+            logger.error("删除短码注册记录时发生错误", e);
+        }
+    }
+
+    private void mergeIntoHistory(List<PartitionInfo> cleared, LocalDateTime upperBound) {
+        try {
+            shortUrlMapper.mergeIntoHistoryPartition(cleared, upperBound.format(BOUND_FORMAT));
+            logger.info("已将 {} 个清空的过期分区合并为 {}", cleared.size(), HISTORY_PARTITION);
+        } catch (Exception e) {
+            logger.error("合并过期分区时发生错误", e);
+        }
+    }
+
+    /**
+     * 流式读取分区内的短码并批量删除对应的Redis键
+     */
+    private long invalidatePartitionCache(String partition) {
+        List<String> batch = new ArrayList<>(INVALIDATE_BATCH_SIZE);
+        long[] total = {0};
+        shortUrlMapper.streamCodesInPartition(partition, context -> {
+            batch.add("short:" + context.getResultObject());
+            if (batch.size() >= INVALIDATE_BATCH_SIZE) {
+                total[0] += deleteKeys(batch);
+                batch.clear();
+            }
+        });
+        total[0] += deleteKeys(batch);
+        return total[0];
+    }
+
+    private long deleteKeys(List<String> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        try {
+            Long deleted = redisTemplate.delete(keys);
+            return deleted != null ? deleted : 0;
+        } catch (Exception e) {
+            // 缓存TTL不会超过链接有效期，删除失败只影响内存回收，不影响正确性
+            logger.warn("批量删除缓存失败: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    private boolean detectPartitionedTable() {
+        try (Connection connection = dataSource.getConnection()) {
+            String product = connection.getMetaData().getDatabaseProductName();
+            if (product == null || !product.toLowerCase().contains("mysql")) {
+                logger.info("数据库 {} 不支持分区管理，使用逐行清理", product);
+                return false;
+            }
+        } catch (Exception e) {
+            logger.warn("检测数据库类型失败，使用逐行清理: {}", e.getMessage());
+            return false;
+        }
+        List<PartitionInfo> partitions = shortUrlMapper.selectPartitions();
+        boolean partitioned = partitions.stream().anyMatch(p -> FUTURE_PARTITION.equals(p.getName()));
+        if (!partitioned) {
+            logger.warn("short_url 表未按 sql/migrate_partitioned.sql 分区，使用逐行清理");
+        }
+        return partitioned;
+    }
+
+    /**
+     * 计算需要从 p_future 中拆分出的新分区
+     * 从已有日期分区的最大上界（或今天）开始，直到覆盖 today + futureCount 个粒度单位；
+     * 每个分区的上界都对齐到下一个粒度边界，起点未对齐（例如按周分区时 p_history 的上界不是周一）时第一个分区较短
+     */
+    static List<PartitionInfo> planFuturePartitions(List<PartitionInfo> existing, LocalDate today,
+                                                    Granularity granularity, int futureCount) {
+        LocalDate start = align(today, granularity);
+        for (PartitionInfo partition : existing) {
+            if (RESERVED_PARTITIONS.contains(partition.getName())) {
+                continue;
+            }
+            LocalDateTime bound = upperBound(partition);
+            if (bound != null && bound.toLocalDate().isAfter(start)) {
+                start = bound.toLocalDate();
+            }
+        }
+
+        LocalDate horizon = next(align(today, granularity), granularity, futureCount);
+        List<PartitionInfo> planned = new ArrayList<>();
+        LocalDate lower = start;
+        while (lower.isBefore(horizon)) {
+            LocalDate upper = next(align(lower, granularity), granularity, 1);
+            planned.add(new PartitionInfo("p" + lower.format(NAME_FORMAT), upper.atStartOfDay().format(BOUND_FORMAT)));
+            lower = upper;
+        }
+        return planned;
+    }
+
+    /**
+     * 筛选上界不晚于当前时间（即分区内所有链接均已过期）的分区
+     */
+    static List<PartitionInfo> expiredPartitions(List<PartitionInfo> existing, LocalDateTime currentTime) {
+        List<PartitionInfo> expired = new ArrayList<>();
+        for (PartitionInfo partition : existing) {
+            if (RESERVED_PARTITIONS.contains(partition.getName())
+                    || !PARTITION_NAME.matcher(partition.getName()).matches()) {
+                continue;
+            }
+            LocalDateTime bound = upperBound(partition);
+            if (bound != null && !bound.isAfter(currentTime)) {
+                expired.add(partition);
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * 解析分区上界，例如 '2026-10-21 00:00:00'；MAXVALUE 返回null
+     */
+    static LocalDateTime upperBound(PartitionInfo partition) {
+        String description = partition.getDescription();
+        if (description == null || description.equalsIgnoreCase("MAXVALUE")) {
+            return null;
+        }
+        String value = description.replace("'", "").trim();
+        if (value.length() == 10) {
+            return LocalDate.parse(value).atStartOfDay();
+        }
+        return LocalDateTime.parse(value, BOUND_FORMAT);
+    }
+
+    private static LocalDate align(LocalDate date, Granularity granularity) {
+        return granularity == Granularity.WEEK ? date.with(DayOfWeek.MONDAY) : date;
+    }
+
+    private static LocalDate next(LocalDate date, Granularity granularity, int units) {
+        return granularity == Granularity.WEEK ? date.plusWeeks(units) : date.plusDays(units);
+    }
+}
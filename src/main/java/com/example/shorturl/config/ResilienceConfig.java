@@ -0,0 +1,83 @@
+package com.example.shorturl.config;
+
+import com.example.shorturl.util.Bulkhead;
+import com.example.shorturl.util.CircuitBreaker;
+import com.example.shorturl.util.StaleUrlCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 依赖容错配置
+ * 为Redis和MySQL分别配置熔断器；重定向与清理/管理任务使用独立的隔离舱，互不抢占数据库连接
+ */
+@Configuration
+public class ResilienceConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResilienceConfig.class);
+
+    @Bean
+    public CircuitBreaker redisCircuitBreaker(@Value("${short-url.resilience.redis.failure-threshold:5}") int failureThreshold,
+                                              @Value("${short-url.resilience.redis.open-ms:5000}") long openMillis,
+                                              @Value("${short-url.resilience.redis.slow-call-ms:100}") long slowCallMillis,
+                                              MeterRegistry meterRegistry) {
+        return register(new CircuitBreaker("redis", failureThreshold, openMillis, slowCallMillis), meterRegistry);
+    }
+
+    @Bean
+    public CircuitBreaker mysqlCircuitBreaker(@Value("${short-url.resilience.mysql.failure-threshold:5}") int failureThreshold,
+                                              @Value("${short-url.resilience.mysql.open-ms:10000}") long openMillis,
+                                              @Value("${short-url.resilience.mysql.slow-call-ms:500}") long slowCallMillis,
+                                              MeterRegistry meterRegistry) {
+        return register(new CircuitBreaker("mysql", failureThreshold, openMillis, slowCallMillis), meterRegistry);
+    }
+
+    /**
+     * 重定向访问MySQL的并发上限，数据库变慢时多余的请求立即走降级路径而不是排队。
+     * 上限超过连接池大小时多出的请求只会在连接池上等待 connection-timeout，因此不超过连接池大小
+     */
+    @Bean
+    public Bulkhead redirectBulkhead(@Value("${short-url.resilience.redirect-bulkhead.max-concurrent:16}") int maxConcurrent,
+                                     @Value("${short-url.resilience.redirect-bulkhead.max-wait-ms:0}") long maxWaitMillis,
+                                     @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize) {
+        if (maxConcurrent > poolSize) {
+            logger.warn("重定向隔离舱上限 {} 超过连接池大小 {}，按连接池大小限制", maxConcurrent, poolSize);
+            maxConcurrent = poolSize;
+        }
+        return new Bulkhead("redirect", maxConcurrent, maxWaitMillis);
+    }
+
+    /**
+     * 清理与管理任务访问MySQL的并发上限
+     */
+    @Bean
+    public Bulkhead adminBulkhead(@Value("${short-url.resilience.admin-bulkhead.max-concurrent:2}") int maxConcurrent,
+                                  @Value("${short-url.resilience.admin-bulkhead.max-wait-ms:1000}") long maxWaitMillis) {
+        return new Bulkhead("admin", maxConcurrent, maxWaitMillis);
+    }
+
+    @Bean
+    public StaleUrlCache staleUrlCache(@Value("${short-url.resilience.stale.max-entries:100000}") int maxEntries,
+                                       @Value("${short-url.resilience.stale.max-staleness-seconds:600}") long maxStalenessSeconds,
+                                       MeterRegistry meterRegistry) {
+        StaleUrlCache cache = new StaleUrlCache(maxEntries, maxStalenessSeconds);
+        Gauge.builder("short_url.stale_cache.size", cache, StaleUrlCache::size).register(meterRegistry);
+        return cache;
+    }
+
+    private CircuitBreaker register(CircuitBreaker breaker, MeterRegistry meterRegistry) {
+        // 0=关闭 1=半开 2=熔断
+        Gauge.builder("short_url.circuit_breaker.state", breaker, b -> switch (b.getState()) {
+                    case CLOSED -> 0;
+                    case HALF_OPEN -> 1;
+                    case OPEN -> 2;
+                })
+                .tag("name", breaker.getName())
+                .register(meterRegistry);
+        return breaker;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.shorturl.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 慢SQL日志插件
+ * 取代逐条打印SQL到标准输出：只有执行时间超过阈值的语句才会按采样率记录一条WARN日志，
+ * 不记录参数值（避免长链接等内容写入日志），所有慢SQL都会计数
+ */
+@Component
+@Intercepts({
+        @Signature(type = StatementHandler.class, method = "query", args = {Statement.class, ResultHandler.class}),
+        @Signature(type = StatementHandler.class, method = "update", args = {Statement.class}),
+        @Signature(type = StatementHandler.class, method = "batch", args = {Statement.class})
+})
+public class SlowSqlInterceptor implements Interceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlowSqlInterceptor.class);
+
+    @Value("${short-url.slow-sql.threshold-ms:200}") // 超过该耗时视为慢SQL
+    private long thresholdMs;
+
+    @Value("${short-url.slow-sql.sample-rate:1.0}") // 慢SQL日志采样率
+    private double sampleRate;
+
+    private final Counter slowCounter;
+
+    public SlowSqlInterceptor(MeterRegistry meterRegistry) {
+        this.slowCounter = meterRegistry.counter("short_url.sql.slow");
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } finally {
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            if (elapsedMs >= thresholdMs) {
+                slowCounter.increment();
+                if (sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate) {
+                    StatementHandler handler = (StatementHandler) invocation.getTarget();
+                    logger.warn("慢SQL {}ms [{}]: {}", elapsedMs, invocation.getMethod().getName(),
+                            handler.getBoundSql().getSql().replaceAll("\\s+", " "));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.shorturl.controller;
+
+import com.example.shorturl.model.ShortUrlArchive;
+import com.example.shorturl.service.ArchiveService;
+import com.example.shorturl.util.Bulkhead;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 归档查询控制器
+ * 查询已过期短码曾经指向的长链接和访问次数，只读归档表，在管理隔离舱中执行，不影响重定向
+ */
+@RestController
+@Lazy
+@RequestMapping("/api/admin/archive")
+public class ArchiveController {
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Autowired
+    @Qualifier("adminBulkhead")
+    private Bulkhead adminBulkhead;
+
+    /**
+     * 查询短码的归档记录，最近归档的在前
+     */
+    @GetMapping("/{shortCode}")
+    public ResponseEntity<Map<String, Object>> lookup(@PathVariable String shortCode) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            List<ShortUrlArchive> records = adminBulkhead.call(() -> archiveService.lookup(shortCode));
+            if (records.isEmpty()) {
+                response.put("success", false);
+                response.put("message", "归档中没有该短码");
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+            }
+            response.put("success", true);
+            response.put("shortCode", shortCode);
+            response.put("records", records);
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "查询归档失败: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(response);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.example.shorturl.controller;
 
 import com.example.shorturl.config.CleanupConfig;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -13,9 +14,10 @@ import java.util.Map;
 
 /**
  * 清理任务管理控制器
- * 提供手动触发清理和查看清理统计的API
+ * 提供手动触发清理和查看清理统计的API，第一次请求时才初始化
  */
 @RestController
+@Lazy
 @RequestMapping("/api/admin/cleanup")
 public class CleanupController {
 
@@ -1,7 +1,12 @@
 package com.example.shorturl.controller;
 
+import com.example.shorturl.model.ResolveResult;
 import com.example.shorturl.service.ShortUrlService;
+import com.example.shorturl.util.AccessLogger;
+import com.example.shorturl.util.AliasUnavailableException;
+import com.example.shorturl.util.DependencyUnavailableException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -9,6 +14,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 @RestController
 //@RequestMapping("/api")
@@ -16,29 +22,103 @@ public class ShortUrlController {
     @Autowired
     private ShortUrlService shortUrlService;
 
+    @Autowired
+    private AccessLogger accessLogger;
+
+    @Value("${short-url.batch.max-size:1000}") // 批量解析单次最多短码数
+    private int maxBatchSize;
+
+    /**
+     * 创建短链接，可通过 alias 参数指定自定义别名（如 /api/shorten?alias=spring-sale），别名已被占用时返回409
+     */
     @PostMapping(value = "/api/shorten", consumes = MediaType.TEXT_PLAIN_VALUE)
-    public ResponseEntity<String> shortenUrl(@RequestBody String longUrl) {
+    public ResponseEntity<String> shortenUrl(@RequestBody String longUrl,
+                                             @RequestParam(required = false) String alias) {
+        long start = System.nanoTime();
         // 解码 URL 编码的输入
         String decodedUrl = URLDecoder.decode(longUrl, StandardCharsets.UTF_8);
-        System.out.println("Received longUrl: [" + longUrl + "], Decoded: [" + decodedUrl + "], Length: " + decodedUrl.length());
-        String shortUrl = shortUrlService.createShortUrl(decodedUrl);
-        return ResponseEntity.ok(shortUrl);
+        try {
+            String shortUrl = shortUrlService.createShortUrl(decodedUrl, alias);
+            accessLogger.log(AccessLogger.Route.SHORTEN, alias, decodedUrl, 200, start);
+            return ResponseEntity.ok(shortUrl);
+        } catch (RuntimeException e) {
+            accessLogger.log(AccessLogger.Route.SHORTEN, alias, decodedUrl, statusOf(e), start);
+            throw e;
+        }
+    }
+
+    /**
+     * 批量解析短链接，不做重定向；countVisits=false 时不计入访问次数（供爬虫、预览服务使用）
+     */
+    @PostMapping(value = "/api/resolve", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<ResolveResult>> resolveBatch(@RequestBody List<String> shortCodes,
+                                                            @RequestParam(defaultValue = "true") boolean countVisits) {
+        long start = System.nanoTime();
+        // JSON数组中的 null 元素无法解析为短码，整体拒绝而不是在服务层抛出空指针
+        if (shortCodes.contains(null)) {
+            accessLogger.log(AccessLogger.Route.RESOLVE, null, null, HttpStatus.BAD_REQUEST.value(), start);
+            return ResponseEntity.badRequest().build();
+        }
+        if (shortCodes.size() > maxBatchSize) {
+            accessLogger.log(AccessLogger.Route.RESOLVE, null, null, HttpStatus.PAYLOAD_TOO_LARGE.value(), start);
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        List<ResolveResult> results = shortUrlService.resolveBatch(shortCodes, countVisits);
+        accessLogger.log(AccessLogger.Route.RESOLVE, null, null, 200, start);
+        return ResponseEntity.ok(results);
     }
 
     @GetMapping("/{shortCode}")
     public ResponseEntity<String> redirect(@PathVariable String shortCode) {
-        String longUrl = shortUrlService.getLongUrl(shortCode);
+        long start = System.nanoTime();
+        String longUrl;
+        try {
+            longUrl = shortUrlService.getLongUrl(shortCode);
+        } catch (RuntimeException e) {
+            accessLogger.log(AccessLogger.Route.REDIRECT, shortCode, null, statusOf(e), start);
+            throw e;
+        }
         if (!longUrl.startsWith("http://") && !longUrl.startsWith("https://")) {
             longUrl = "http://" + longUrl;
         }
+        accessLogger.log(AccessLogger.Route.REDIRECT, shortCode, longUrl, 302, start);
         return ResponseEntity.status(302).header("Location", longUrl).build();
     }
 
+    /**
+     * 与下方异常处理器的映射保持一致
+     */
+    private static int statusOf(RuntimeException e) {
+        if (e instanceof DependencyUnavailableException) {
+            return HttpStatus.SERVICE_UNAVAILABLE.value();
+        }
+        if (e instanceof AliasUnavailableException) {
+            return HttpStatus.CONFLICT.value();
+        }
+        if (e instanceof IllegalStateException) {
+            return HttpStatus.GONE.value();
+        }
+        if (e instanceof IllegalArgumentException) {
+            return HttpStatus.NOT_FOUND.value();
+        }
+        return HttpStatus.INTERNAL_SERVER_ERROR.value();
+    }
+
     @ExceptionHandler(IllegalStateException.class)
     public ResponseEntity<String> handleExpiredLink(IllegalStateException ex) {
         return ResponseEntity.status(HttpStatus.GONE).body(ex.getMessage());
     }
 
+    @ExceptionHandler(DependencyUnavailableException.class)
+    public ResponseEntity<String> handleUnavailable(DependencyUnavailableException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "5").body(ex.getMessage());
+    }
+
+    @ExceptionHandler(AliasUnavailableException.class)
+    public ResponseEntity<String> handleAliasUnavailable(AliasUnavailableException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<String> handleInvalidLink(IllegalArgumentException ex) {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
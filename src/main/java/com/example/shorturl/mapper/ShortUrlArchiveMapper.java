@@ -0,0 +1,38 @@
+package com.example.shorturl.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.example.shorturl.model.ShortUrl;
+import com.example.shorturl.model.ShortUrlArchive;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Mapper
+public interface ShortUrlArchiveMapper extends BaseMapper<ShortUrlArchive> {
+
+    /**
+     * 从热表读取一批已过期的链接，归档后会被删除，因此每次从头读取即可
+     */
+    List<ShortUrl> selectExpiredBatch(@Param("currentTime") LocalDateTime currentTime, @Param("limit") int limit);
+
+    /**
+     * 按主键顺序分批读取某个分区内的链接（仅MySQL分区表布局下可用），afterId 为上一批最后一条的id
+     */
+    List<ShortUrl> selectPartitionBatch(@Param("partition") String partition,
+                                        @Param("afterId") long afterId,
+                                        @Param("limit") int limit);
+
+    /**
+     * 批量写入归档表，任何一行写入失败（主键冲突、超长等）整条语句报错
+     *
+     * @return 写入的行数
+     */
+    int insertBatch(@Param("list") List<ShortUrl> shortUrls, @Param("archivedAt") LocalDateTime archivedAt);
+
+    /**
+     * 批量写入归档表，已归档的记录（上次归档分区后未及清理就中断）以本次读到的数据覆盖
+     */
+    int upsertBatch(@Param("list") List<ShortUrl> shortUrls, @Param("archivedAt") LocalDateTime archivedAt);
+}
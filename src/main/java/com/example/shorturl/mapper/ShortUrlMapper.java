@@ -1,16 +1,80 @@
 package com.example.shorturl.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.example.shorturl.model.PartitionInfo;
 import com.example.shorturl.model.ShortUrl;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 @Mapper
 public interface ShortUrlMapper extends BaseMapper<ShortUrl> {
     
     void updateVisitCount(@Param("shortCode") String shortCode);
 
+    void addVisitCount(@Param("shortCode") String shortCode, @Param("delta") long delta);
+
+    /**
+     * 一条UPDATE为多个短码分别累加访问次数
+     */
+    void addVisitCounts(@Param("deltas") Map<String, Long> deltas);
+
+    /**
+     * 重定向路径按短码查询，带独立的语句超时
+     */
+    ShortUrl selectByShortCode(@Param("shortCode") String shortCode);
+
+    /**
+     * 批量解析按短码批量查询，带独立的语句超时
+     */
+    List<ShortUrl> selectByShortCodes(@Param("shortCodes") Collection<String> shortCodes);
+
+    /**
+     * 批量插入，任一短码已存在时整条语句失败（DuplicateKeyException），由调用方逐条核对
+     */
+    void insertBatch(@Param("list") List<ShortUrl> shortUrls);
+
     void deleteExpired(@Param("currentTime") LocalDateTime currentTime);
+
+    /**
+     * 查询 short_url 表的分区（仅MySQL分区表布局下可用）
+     */
+    List<PartitionInfo> selectPartitions();
+
+    /**
+     * 流式读取某个分区内的全部短码，用于在删除分区前清理Redis缓存
+     */
+    void streamCodesInPartition(@Param("partition") String partition, ResultHandler<String> handler);
+
+    /**
+     * 将 p_future 拆分为若干新分区，p_future 保留为兜底分区
+     */
+    void reorganizeFuturePartition(@Param("partitions") List<PartitionInfo> partitions);
+
+    /**
+     * 分区内是否还有数据
+     */
+    boolean partitionHasRows(@Param("partition") String partition);
+
+    void dropPartition(@Param("partition") String partition);
+
+    void truncatePartition(@Param("partition") String partition);
+
+    /**
+     * 将从第一个分区起相邻的若干已清空分区合并为一个 p_history 分区
+     */
+    void mergeIntoHistoryPartition(@Param("partitions") List<PartitionInfo> partitions,
+                                   @Param("upperBound") String upperBound);
+
+    /**
+     * 删除短码注册表中过期时间早于 bound 的记录（分区被删除或清空后调用）
+     *
+     * @return 删除的行数
+     */
+    int deleteRegisteredCodesBefore(@Param("bound") LocalDateTime bound, @Param("limit") int limit);
 }
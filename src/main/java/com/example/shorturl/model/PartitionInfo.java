@@ -0,0 +1,18 @@
+package com.example.shorturl.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * short_url 表的分区信息
+ * description 为 RANGE COLUMNS 分区的上界（不含），MAXVALUE 分区为 "MAXVALUE"
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PartitionInfo {
+    private String name;
+
+    private String description;
+}
@@ -0,0 +1,23 @@
+package com.example.shorturl.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 批量解析短链接的单项结果
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResolveResult {
+    private String shortCode;
+
+    private String longUrl;
+
+    private Status status;
+
+    public enum Status {
+        OK, EXPIRED, NOT_FOUND, UNAVAILABLE
+    }
+}
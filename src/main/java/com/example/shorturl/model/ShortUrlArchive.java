@@ -0,0 +1,42 @@
+package com.example.shorturl.model;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 已过期并归档的短链接，id 与原 short_url 记录相同
+ * 同一个短码过期后可能被重新分配，因此归档表中一个短码可以对应多条记录
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("short_url_archive")
+public class ShortUrlArchive {
+    @TableId(type = IdType.INPUT)
+    private Long id;
+
+    @TableField("short_code")
+    private String shortCode;
+
+    @TableField("long_url")
+    private String longUrl;
+
+    @TableField("created_at")
+    private LocalDateTime createdAt;
+
+    @TableField("visit_count")
+    private Long visitCount;
+
+    @TableField("expire_at")
+    private LocalDateTime expireAt;
+
+    @TableField("archived_at")
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,36 @@
+package com.example.shorturl.service;
+
+import com.example.shorturl.model.ShortUrlArchive;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 过期链接归档服务
+ * 过期链接从热表 short_url 分批迁移到归档表 short_url_archive（保留访问次数），热表只保留有效链接
+ */
+public interface ArchiveService {
+
+    boolean isEnabled();
+
+    /**
+     * 分批归档并删除热表中已过期的链接
+     *
+     * @param currentTime 当前时间
+     * @param maxRows     本次最多归档的行数，剩余的留给下一次
+     * @return 归档的行数
+     */
+    long archiveExpired(LocalDateTime currentTime, long maxRows);
+
+    /**
+     * 分批归档整个分区的链接，分区随后由 PartitionManager 整体删除
+     *
+     * @return 归档的行数
+     */
+    long archivePartition(String partition);
+
+    /**
+     * 查询短码的归档记录，最近归档的在前
+     */
+    List<ShortUrlArchive> lookup(String shortCode);
+}
@@ -1,6 +1,17 @@
 package com.example.shorturl.service;
 
+import com.example.shorturl.model.ResolveResult;
+
+import java.util.List;
+
 public interface ShortUrlService {
     String createShortUrl(String longUrl);
+
+    /**
+     * 创建短链接，alias 不为空时使用自定义别名作为短码
+     */
+    String createShortUrl(String longUrl, String alias);
+
     String getLongUrl(String shortCode);
+    List<ResolveResult> resolveBatch(List<String> shortCodes, boolean countVisits);
 }
\ No newline at end of file
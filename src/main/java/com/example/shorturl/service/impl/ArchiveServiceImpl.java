@@ -0,0 +1,123 @@
+package com.example.shorturl.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.example.shorturl.mapper.ShortUrlArchiveMapper;
+import com.example.shorturl.mapper.ShortUrlMapper;
+import com.example.shorturl.model.ShortUrl;
+import com.example.shorturl.model.ShortUrlArchive;
+import com.example.shorturl.service.ArchiveService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+public class ArchiveServiceImpl implements ArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveServiceImpl.class);
+
+    @Autowired
+    private ShortUrlArchiveMapper archiveMapper;
+
+    @Autowired
+    private ShortUrlMapper shortUrlMapper;
+
+    @Autowired
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${short-url.archive.enabled:false}") // 过期链接归档后再删除，关闭则直接删除（需先创建归档表）
+    private boolean enabled;
+
+    @Value("${short-url.archive.batch-size:500}") // 每批归档的行数
+    private int batchSize;
+
+    @Value("${short-url.archive.lookup-limit:20}") // 归档查询最多返回的记录数
+    private int lookupLimit;
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public long archiveExpired(LocalDateTime currentTime, long maxRows) {
+        long archived = 0;
+        while (archived < maxRows) {
+            int limit = (int) Math.min(batchSize, maxRows - archived);
+            List<ShortUrl> batch = archiveMapper.selectExpiredBatch(currentTime, limit);
+            if (batch.isEmpty()) {
+                break;
+            }
+            // 写入归档表和删除热表记录在同一事务中，中断后重跑不会丢失或重复；
+            // 归档行数与批次不一致时抛出异常回滚，不删除未能归档的热表记录
+            Integer deleted = transactionTemplate.execute(status -> {
+                int inserted = archiveMapper.insertBatch(batch, currentTime);
+                if (inserted != batch.size()) {
+                    throw new IllegalStateException("归档写入 " + inserted + " 行，与批次大小 " + batch.size() + " 不一致");
+                }
+                return shortUrlMapper.deleteByIds(batch.stream().map(ShortUrl::getId).toList());
+            });
+            invalidateCache(batch);
+            archived += batch.size();
+            if (deleted == null || deleted == 0) {
+                logger.warn("归档批次未删除任何热表记录，停止本次归档");
+                break;
+            }
+            if (batch.size() < limit) {
+                break;
+            }
+        }
+        if (archived > 0) {
+            logger.info("已归档过期链接 {} 条", archived);
+        }
+        return archived;
+    }
+
+    @Override
+    public long archivePartition(String partition) {
+        LocalDateTime archivedAt = LocalDateTime.now();
+        long archived = 0;
+        long afterId = 0;
+        while (true) {
+            List<ShortUrl> batch = archiveMapper.selectPartitionBatch(partition, afterId, batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+            // 分区在归档之后才被清理，中断后重跑会再次读到已归档的记录
+            archiveMapper.upsertBatch(batch, archivedAt);
+            archived += batch.size();
+            afterId = batch.get(batch.size() - 1).getId();
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+        logger.info("分区 {} 已归档 {} 条", partition, archived);
+        return archived;
+    }
+
+    @Override
+    public List<ShortUrlArchive> lookup(String shortCode) {
+        return archiveMapper.selectList(new QueryWrapper<ShortUrlArchive>()
+                .eq("short_code", shortCode)
+                .orderByDesc("archived_at", "id")
+                .last("LIMIT " + lookupLimit));
+    }
+
+    private void invalidateCache(List<ShortUrl> batch) {
+        try {
+            redisTemplate.delete(batch.stream().map(shortUrl -> "short:" + shortUrl.getShortCode()).toList());
+        } catch (Exception e) {
+            // 缓存TTL不会超过链接有效期，删除失败只影响内存回收，不影响正确性
+            logger.warn("批量删除缓存失败: {}", e.getMessage());
+        }
+    }
+}
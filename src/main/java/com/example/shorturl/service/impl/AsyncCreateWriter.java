@@ -0,0 +1,324 @@
+package com.example.shorturl.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.example.shorturl.mapper.ShortUrlMapper;
+import com.example.shorturl.model.ShortUrl;
+import com.example.shorturl.util.CacheTtlPolicy;
+import com.example.shorturl.util.CreateJournal;
+import com.example.shorturl.util.DependencyUnavailableException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 异步创建模式的后台写入器
+ * 短码写入本地日志后即返回，由后台线程批量插入MySQL；写入前的短码保存在内存中，重定向和访问计数照常可用。
+ * 启动时重放日志中未提交的记录，保证崩溃不会丢失已返回给用户的短码。
+ * 使用普通INSERT：短码已存在时逐条核对，崩溃前已写入的同一记录视为已提交，
+ * 与他人短码冲突的记录转存到 .rejected 文件并记录ERROR日志，不会被静默丢弃
+ */
+@Component
+@ConditionalOnProperty(prefix = "short-url.async-create", name = "enabled", havingValue = "true")
+public class AsyncCreateWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncCreateWriter.class);
+
+    @Autowired
+    private ShortUrlMapper shortUrlMapper;
+
+    @Autowired
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Autowired
+    private CacheTtlPolicy cacheTtlPolicy;
+
+    @Autowired
+    private CreateJournal createJournal;
+
+    @Value("${short-url.async-create.batch-size:500}") // 每批插入的最大行数
+    private int batchSize;
+
+    @Value("${short-url.async-create.journal-timeout-ms:1000}") // 等待日志落盘的最长时间
+    private long journalTimeoutMs;
+
+    @Value("${short-url.async-create.retry-backoff-ms:1000}") // 插入失败后的重试间隔
+    private long retryBackoffMs;
+
+    private final Map<String, PendingEntry> pending = new ConcurrentHashMap<>();
+    private final BlockingQueue<PendingEntry> queue = new LinkedBlockingQueue<>();
+
+    private volatile boolean running = true;
+    private Thread writer;
+
+    /**
+     * 重放崩溃前未写入MySQL的记录，然后启动后台写入线程
+     */
+    @PostConstruct
+    public void start() throws Exception {
+        List<ShortUrl> replayed = createJournal.replay();
+        for (ShortUrl shortUrl : replayed) {
+            PendingEntry entry = new PendingEntry(shortUrl);
+            pending.put(shortUrl.getShortCode(), entry);
+            queue.add(entry);
+            cacheReplayed(shortUrl);
+        }
+        if (!replayed.isEmpty()) {
+            logger.warn("从创建日志重放 {} 条未写入数据库的短链接", replayed.size());
+        }
+
+        writer = new Thread(this::drainLoop, "async-create-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * 停止时把剩余记录写入数据库，写不完的留在日志中等下次启动重放
+     */
+    @PreDestroy
+    public void stop() throws Exception {
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        createJournal.close();
+    }
+
+    /**
+     * 提交一条已预留短码的创建记录，记录fsync到日志后返回
+     *
+     * @throws DependencyUnavailableException 等待落盘超时：记录仍在刷盘队列中，结果未定，调用方不能释放预留
+     * @throws RuntimeException 记录确定未写入日志，调用方可以释放预留
+     */
+    public void submit(ShortUrl shortUrl) {
+        PendingEntry entry = new PendingEntry(shortUrl);
+        pending.put(shortUrl.getShortCode(), entry);
+        CompletableFuture<Void> durable = createJournal.append(shortUrl);
+        try {
+            durable.get(journalTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // 超时后记录仍会落盘并在重启时重放，因此照常排队写入数据库，保持日志提交标记与预留一致；
+            // 用户已收到失败，这条链接成为无人引用的有效记录，预留随链接过期
+            durable.whenComplete((ignored, error) -> {
+                if (error == null) {
+                    queue.add(entry);
+                } else {
+                    pending.remove(shortUrl.getShortCode());
+                }
+            });
+            logger.warn("短码 {} 等待创建日志落盘超时，落盘后仍会写入数据库", shortUrl.getShortCode());
+            throw new DependencyUnavailableException("写入创建日志超时，请稍后重试", e);
+        } catch (Exception e) {
+            pending.remove(shortUrl.getShortCode());
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw new RuntimeException("写入创建日志失败，请稍后重试", e);
+        }
+        queue.add(entry);
+    }
+
+    /**
+     * 短码是否仍在等待写入数据库
+     */
+    public boolean isPending(String shortCode) {
+        return pending.containsKey(shortCode);
+    }
+
+    /**
+     * 解析尚未写入数据库的短码并计入一次访问
+     *
+     * @return 长链接，短码不在写入队列中时返回null
+     */
+    public String resolvePending(String shortCode) {
+        return resolvePending(shortCode, true);
+    }
+
+    /**
+     * 解析尚未写入数据库的短码，countVisit=false 时不计入访问次数（批量解析的预览请求）
+     */
+    public String resolvePending(String shortCode, boolean countVisit) {
+        PendingEntry entry = pending.get(shortCode);
+        if (entry == null) {
+            return null;
+        }
+        synchronized (entry) {
+            if (entry.flushed) {
+                return null; // 已写入数据库，走正常路径计数
+            }
+            if (countVisit) {
+                entry.visits++;
+            }
+            return entry.shortUrl.getLongUrl();
+        }
+    }
+
+    private void drainLoop() {
+        List<PendingEntry> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingEntry first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                if (!flush(batch)) {
+                    queue.addAll(batch);
+                    if (!running) {
+                        return; // 关闭时数据库不可用，剩余记录留待重放
+                    }
+                    Thread.sleep(retryBackoffMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 批量插入一批记录，插入期间产生的访问次数在插入后补记
+     *
+     * @return 是否写入成功
+     */
+    boolean flush(List<PendingEntry> batch) {
+        List<ShortUrl> rows = new ArrayList<>(batch.size());
+        long[] snapshots = new long[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            PendingEntry entry = batch.get(i);
+            synchronized (entry) {
+                snapshots[i] = entry.visits;
+            }
+            ShortUrl row = entry.shortUrl;
+            row.setVisitCount(snapshots[i]);
+            rows.add(row);
+        }
+
+        Set<String> conflicts;
+        try {
+            shortUrlMapper.insertBatch(rows);
+            conflicts = Set.of();
+        } catch (DuplicateKeyException e) {
+            try {
+                conflicts = insertOneByOne(rows);
+            } catch (Exception retryable) {
+                logger.error("逐条写入 {} 条短链接失败，稍后重试", rows.size(), retryable);
+                return false;
+            }
+        } catch (Exception e) {
+            logger.error("批量写入 {} 条短链接失败，稍后重试", rows.size(), e);
+            return false;
+        }
+
+        List<String> committed = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            PendingEntry entry = batch.get(i);
+            String shortCode = entry.shortUrl.getShortCode();
+            long delta;
+            synchronized (entry) {
+                entry.flushed = true;
+                delta = entry.visits - snapshots[i];
+            }
+            pending.remove(shortCode);
+            if (conflicts.contains(shortCode)) {
+                reject(entry.shortUrl);
+                continue;
+            }
+            committed.add(shortCode);
+            if (delta > 0) {
+                try {
+                    shortUrlMapper.addVisitCount(shortCode, delta);
+                } catch (Exception e) {
+                    logger.warn("补记短链接 {} 的访问次数失败: {}", shortCode, e.getMessage());
+                }
+            }
+        }
+        createJournal.markCommitted(committed);
+        return true;
+    }
+
+    /**
+     * 批量插入遇到已存在的短码时逐条插入。已存在的行若指向同一长链接，说明是崩溃前已写入、提交标记丢失的记录；
+     * 否则是与他人短码的真实冲突
+     *
+     * @return 冲突的短码
+     */
+    private Set<String> insertOneByOne(List<ShortUrl> rows) {
+        Set<String> conflicts = new HashSet<>();
+        for (ShortUrl row : rows) {
+            try {
+                shortUrlMapper.insert(row);
+            } catch (DuplicateKeyException e) {
+                ShortUrl existing = shortUrlMapper.selectOne(new QueryWrapper<ShortUrl>().eq("short_code", row.getShortCode()));
+                if (existing == null || !row.getLongUrl().equals(existing.getLongUrl())) {
+                    conflicts.add(row.getShortCode());
+                }
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * 冲突的记录无法写入：删除本节点写入的缓存使重定向以数据库为准，记录转存到 .rejected 文件等待人工处理。
+     * 转存失败时不标记提交，重启后重放时再次处理
+     */
+    private void reject(ShortUrl shortUrl) {
+        logger.error("短码 {} 已被其他链接占用，{} 无法写入数据库，已转存待人工处理",
+                shortUrl.getShortCode(), shortUrl.getLongUrl());
+        try {
+            redisTemplate.delete("short:" + shortUrl.getShortCode());
+        } catch (Exception e) {
+            logger.warn("删除冲突短码 {} 的缓存失败: {}", shortUrl.getShortCode(), e.getMessage());
+        }
+        try {
+            createJournal.reject(shortUrl);
+        } catch (Exception e) {
+            logger.error("转存冲突记录 {} 失败，保留在日志中等待重放", shortUrl.getShortCode(), e);
+        }
+    }
+
+    private void cacheReplayed(ShortUrl shortUrl) {
+        try {
+            long ttl = cacheTtlPolicy.ttlOnWrite(shortUrl.getShortCode(), shortUrl.getExpireAt());
+            if (ttl > 0) {
+                redisTemplate.opsForValue().set("short:" + shortUrl.getShortCode(), shortUrl.getLongUrl(), ttl, TimeUnit.SECONDS);
+            }
+        } catch (Exception e) {
+            logger.warn("重放短链接 {} 写入缓存失败: {}", shortUrl.getShortCode(), e.getMessage());
+        }
+    }
+
+    /**
+     * 等待写入数据库的短链接及其期间的访问次数
+     */
+    static class PendingEntry {
+        private final ShortUrl shortUrl;
+        private long visits;
+        private boolean flushed;
+
+        PendingEntry(ShortUrl shortUrl) {
+            this.shortUrl = shortUrl;
+        }
+    }
+}
@@ -1,21 +1,47 @@
 package com.example.shorturl.service.impl;
 
-import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.example.shorturl.mapper.ShortUrlMapper;
+import com.example.shorturl.model.ResolveResult;
 import com.example.shorturl.model.ShortUrl;
 import com.example.shorturl.service.ShortUrlService;
+import com.example.shorturl.util.AliasBlocklist;
+import com.example.shorturl.util.AliasUnavailableException;
+import com.example.shorturl.util.Bulkhead;
+import com.example.shorturl.util.CacheTtlPolicy;
+import com.example.shorturl.util.CircuitBreaker;
+import com.example.shorturl.util.DependencyUnavailableException;
 import com.example.shorturl.util.ShortUrlGenerator;
+import com.example.shorturl.util.StaleUrlCache;
 import com.example.shorturl.util.UrlValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 @Service
 public class ShortUrlServiceImpl implements ShortUrlService {
+    private static final Logger logger = LoggerFactory.getLogger(ShortUrlServiceImpl.class);
+
     @Autowired
     private ShortUrlMapper shortUrlMapper;
 
@@ -28,6 +54,33 @@ public class ShortUrlServiceImpl implements ShortUrlService {
     @Autowired
     private UrlValidator urlValidator;
 
+    @Autowired
+    private CacheTtlPolicy cacheTtlPolicy;
+
+    @Autowired
+    private AliasBlocklist aliasBlocklist;
+
+    @Autowired
+    private VisitCounter visitCounter;
+
+    @Autowired
+    private StaleUrlCache staleUrlCache;
+
+    @Autowired
+    @Qualifier("redisCircuitBreaker")
+    private CircuitBreaker redisCircuitBreaker;
+
+    @Autowired
+    @Qualifier("mysqlCircuitBreaker")
+    private CircuitBreaker mysqlCircuitBreaker;
+
+    @Autowired
+    @Qualifier("redirectBulkhead")
+    private Bulkhead redirectBulkhead;
+
+    @Autowired(required = false) // 仅在开启异步创建模式时存在
+    private AsyncCreateWriter asyncCreateWriter;
+
     @Value("${short-url.domain}")
     private String domain;
 
@@ -36,6 +89,11 @@ public class ShortUrlServiceImpl implements ShortUrlService {
 
     @Override
     public String createShortUrl(String longUrl) {
+        return createShortUrl(longUrl, null);
+    }
+
+    @Override
+    public String createShortUrl(String longUrl, String alias) {
         // 使用专业的URL验证器进行验证
         if (!urlValidator.isValidUrl(longUrl)) {
             String errorMsg = urlValidator.getValidationError(longUrl);
@@ -45,58 +103,380 @@ public class ShortUrlServiceImpl implements ShortUrlService {
         // 标准化URL
         longUrl = urlValidator.normalizeUrl(longUrl);
 
-        String shortCode;
+        if (alias != null && !alias.isEmpty()) {
+            return domain + createWithAlias(longUrl, alias);
+        }
+
+        if (asyncCreateWriter != null) {
+            String shortCode = createShortUrlAsync(longUrl);
+            if (shortCode != null) {
+                return domain + shortCode;
+            }
+            // Redis不可用时无法跨节点预留短码，改为同步写入，由数据库唯一性约束保证不冲突
+        }
+
+        int maxAttempts = 10;
+        for (int attempts = 0; attempts < maxAttempts; attempts++) {
+            String shortCode = shortUrlGenerator.generateShortCode(longUrl);
+            ShortUrl shortUrl = newShortUrl(shortCode, longUrl);
+            // 与别名、异步创建共用预留命名空间，避免与尚未写入数据库的异步短码或正在创建的别名撞码
+            Boolean reserved = reserveCode(shortCode, shortUrl.getExpireAt());
+            if (Boolean.FALSE.equals(reserved)) {
+                continue;
+            }
+            try {
+                shortUrlMapper.insert(shortUrl);
+            } catch (DuplicateKeyException e) {
+                releaseCode(shortCode, reserved);
+                continue;
+            } catch (RuntimeException e) {
+                releaseCode(shortCode, reserved);
+                throw e;
+            }
+            cacheLongUrl(shortCode, longUrl, shortUrl.getExpireAt());
+            return domain + shortCode;
+        }
+        throw new RuntimeException("无法生成唯一短链接，请稍后重试");
+    }
+
+    /**
+     * 异步创建：用Redis SET NX预留短码，预留的有效期与链接有效期相同，
+     * 保证在数据库写入之前（包括日志积压或数据库长时间不可用时）其他节点都不会再分配同一短码；
+     * 预留成功后写入缓存（跨节点可见），记录落盘到本地日志后即返回，数据库插入由 AsyncCreateWriter 批量完成
+     *
+     * @return 短码，Redis不可用时返回null
+     */
+    private String createShortUrlAsync(String longUrl) {
         int maxAttempts = 10;
-        int attempts = 0;
-        do {
-            if (attempts++ >= maxAttempts) {
-                throw new RuntimeException("无法生成唯一短链接，请稍后重试");
+        for (int attempts = 0; attempts < maxAttempts; attempts++) {
+            String shortCode = shortUrlGenerator.generateShortCode(longUrl);
+            if (asyncCreateWriter.isPending(shortCode) || existsInDatabase(shortCode)) {
+                continue;
+            }
+            ShortUrl shortUrl = newShortUrl(shortCode, longUrl);
+            Boolean reserved = reserveCode(shortCode, shortUrl.getExpireAt());
+            if (reserved == null) {
+                return null;
+            }
+            if (!reserved) {
+                continue; // 其他节点正在创建同一短码
             }
-            shortCode = shortUrlGenerator.generateShortCode(longUrl);
-        } while (shortUrlMapper.selectCount(new QueryWrapper<ShortUrl>().eq("short_code", shortCode)) > 0);
+            try {
+                asyncCreateWriter.submit(shortUrl);
+            } catch (DependencyUnavailableException e) {
+                throw e; // 落盘超时，记录之后仍可能写入，预留保留到链接过期
+            } catch (RuntimeException e) {
+                releaseCode(shortCode, true);
+                throw e;
+            }
+            cacheLongUrl(shortCode, longUrl, shortUrl.getExpireAt());
+            return shortCode;
+        }
+        throw new RuntimeException("无法生成唯一短链接，请稍后重试");
+    }
+
+    /**
+     * 检查短码是否已被未经预留写入的存量记录占用（上线预留前的记录、Redis不可用时同步创建的记录）。
+     * 只经过MySQL熔断器和语句超时，不占用重定向隔离舱；MySQL慢或不可用时直接放行，不让异步创建等待数据库，
+     * 跨节点唯一性由Redis预留保证，与存量记录的冲突由 AsyncCreateWriter 转存处理
+     */
+    private boolean existsInDatabase(String shortCode) {
+        try {
+            return mysqlCircuitBreaker.call(() -> shortUrlMapper.selectByShortCode(shortCode)) != null;
+        } catch (RuntimeException e) {
+            logger.debug("检查短码 {} 是否存在失败，直接放行: {}", shortCode, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 用Redis SET NX预留短码直到链接过期
+     * 随机短码、异步短码和自定义别名共用同一个预留命名空间；
+     * 预留键按小写存放，与MySQL默认不区分大小写的 short_code 唯一性约束保持同一大小写规则
+     *
+     * @return true表示预留成功，false表示已被占用，null表示Redis不可用
+     */
+    private Boolean reserveCode(String shortCode, LocalDateTime expireAt) {
+        long lifetime = Duration.between(LocalDateTime.now(), expireAt).getSeconds();
+        return redisCall(() -> redisTemplate.opsForValue()
+                .setIfAbsent(reservationKey(shortCode), shortCode, lifetime, TimeUnit.SECONDS), null);
+    }
+
+    /**
+     * 插入失败时释放本次取得的预留，Redis不可用时本来就没有预留
+     */
+    private void releaseCode(String shortCode, Boolean reserved) {
+        if (Boolean.TRUE.equals(reserved)) {
+            redisCall(() -> redisTemplate.delete(reservationKey(shortCode)), null);
+        }
+    }
+
+    private static String reservationKey(String shortCode) {
+        return "code:" + shortCode.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 使用自定义别名创建：先用Redis SET NX原子预留别名（与随机短码共用预留命名空间，TTL与链接有效期相同），
+     * 并发抢占同一别名、或别名与尚未落库的异步短码相同时，只有一个请求能进入数据库插入，其余直接返回已占用。
+     * Redis不可用或预留键丢失时由数据库兜底：单表布局下是 short_code 唯一键，
+     * 分区表布局下是触发器同步写入的 short_code_registry 主键（见 sql/migrate_partitioned.sql）。
+     * 别名很少且需要立即确认结果，因此异步创建模式下也同步写入数据库
+     */
+    private String createWithAlias(String longUrl, String alias) {
+        aliasBlocklist.check(alias);
 
+        ShortUrl shortUrl = newShortUrl(alias, longUrl);
+        Boolean reserved = reserveCode(alias, shortUrl.getExpireAt());
+        if (Boolean.FALSE.equals(reserved)) {
+            throw new AliasUnavailableException("别名已被占用");
+        }
+
+        try {
+            shortUrlMapper.insert(shortUrl);
+        } catch (DuplicateKeyException e) {
+            releaseCode(alias, reserved);
+            throw new AliasUnavailableException("别名已被占用");
+        } catch (RuntimeException e) {
+            releaseCode(alias, reserved);
+            throw e;
+        }
+        cacheLongUrl(alias, longUrl, shortUrl.getExpireAt());
+        return alias;
+    }
+
+    private ShortUrl newShortUrl(String shortCode, String longUrl) {
         ShortUrl shortUrl = new ShortUrl();
         shortUrl.setShortCode(shortCode);
         shortUrl.setLongUrl(longUrl);
         shortUrl.setCreatedAt(LocalDateTime.now());
         shortUrl.setVisitCount(0L);
         shortUrl.setExpireAt(LocalDateTime.now().plusDays(expirationDays)); // 设置过期时间
-
-        shortUrlMapper.insert(shortUrl);
-        redisTemplate.opsForValue().set("short:" + shortCode, longUrl, expirationDays * 24 * 60 * 60, TimeUnit.SECONDS); // 设置 Redis TTL（秒）
-
-        return domain + shortCode;
+        return shortUrl;
     }
 
     @Override
     public String getLongUrl(String shortCode) {
-        // 检查缓存
-        String longUrl = redisTemplate.opsForValue().get("short:" + shortCode);
+        // 异步创建模式下尚未写入数据库的短码
+        if (asyncCreateWriter != null) {
+            String pendingUrl = asyncCreateWriter.resolvePending(shortCode);
+            if (pendingUrl != null) {
+                return pendingUrl;
+            }
+        }
+
+        // 检查缓存，Redis不可用时视为未命中
+        String longUrl = redisCall(() -> redisTemplate.opsForValue().get("short:" + shortCode), null);
         if (longUrl != null) {
-            ShortUrl shortUrl = shortUrlMapper.selectOne(new QueryWrapper<ShortUrl>().eq("short_code", shortCode));
-            if (shortUrl != null && isExpired(shortUrl)) {
-                throw new IllegalStateException("短链接已过期");
+            // 缓存TTL不超过链接剩余有效期，命中即未过期，无需回源校验；续期只依据本地记录的有效期
+            long extendTtl = cacheTtlPolicy.ttlOnHit(shortCode, null);
+            if (extendTtl > 0) {
+                redisCall(() -> redisTemplate.expire("short:" + shortCode, extendTtl, TimeUnit.SECONDS), null); // 热点链接续期
             }
-            shortUrlMapper.updateVisitCount(shortCode);
+            staleUrlCache.put(shortCode, longUrl, null);
+            visitCounter.record(shortCode);
             return longUrl;
         }
+        cacheTtlPolicy.recordMiss();
 
-        // 检查数据库
-        ShortUrl shortUrl = shortUrlMapper.selectOne(new QueryWrapper<ShortUrl>().eq("short_code", shortCode));
+        // 检查数据库，MySQL不可用时回退到有限陈旧度的本地数据
+        ShortUrl shortUrl;
+        try {
+            shortUrl = redirectBulkhead.call(() -> mysqlCircuitBreaker.call(
+                    () -> shortUrlMapper.selectByShortCode(shortCode)));
+        } catch (RuntimeException e) {
+            String staleUrl = staleUrlCache.get(shortCode);
+            if (staleUrl == null) {
+                throw new DependencyUnavailableException("服务暂时不可用，请稍后重试", e);
+            }
+            visitCounter.record(shortCode);
+            return staleUrl;
+        }
         if (shortUrl == null) {
             throw new IllegalArgumentException("短链接不存在");
         }
         if (isExpired(shortUrl)) {
+            staleUrlCache.remove(shortCode);
             throw new IllegalStateException("短链接已过期");
         }
 
         // 更新缓存
-        redisTemplate.opsForValue().set("short:" + shortCode, shortUrl.getLongUrl(), expirationDays * 24 * 60 * 60, TimeUnit.SECONDS);
-        shortUrlMapper.updateVisitCount(shortCode);
+        cacheLongUrl(shortCode, shortUrl.getLongUrl(), shortUrl.getExpireAt());
+        staleUrlCache.put(shortCode, shortUrl.getLongUrl(), shortUrl.getExpireAt());
+        visitCounter.record(shortCode);
 
         return shortUrl.getLongUrl();
     }
 
+    /**
+     * 批量解析短链接：一次MGET读取缓存，未命中的短码用一条IN查询回源，
+     * 回填缓存和热点续期合并为一次pipeline，访问计数交给 VisitCounter 异步批量写入。
+     * 缓存TTL不会超过链接剩余有效期，因此缓存命中的短码视为未过期；
+     * 同一批次内重复的短码只解析和计数一次
+     */
+    @Override
+    public List<ResolveResult> resolveBatch(List<String> shortCodes, boolean countVisits) {
+        List<String> codes = new ArrayList<>(new LinkedHashSet<>(shortCodes));
+        if (codes.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // 0. 与 getLongUrl 一致，先查尚未写入数据库的异步短码；其访问次数记在待写入记录上，随插入一并落库
+        Map<String, ResolveResult> results = new HashMap<>();
+        Set<String> pendingCodes = new HashSet<>();
+        List<String> lookups = codes;
+        if (asyncCreateWriter != null) {
+            lookups = new ArrayList<>(codes.size());
+            for (String code : codes) {
+                String pendingUrl = asyncCreateWriter.resolvePending(code, countVisits);
+                if (pendingUrl != null) {
+                    results.put(code, new ResolveResult(code, pendingUrl, ResolveResult.Status.OK));
+                    pendingCodes.add(code);
+                } else {
+                    lookups.add(code);
+                }
+            }
+        }
+
+        // 1. 一次MGET读取缓存
+        List<String> keys = new ArrayList<>(lookups.size());
+        for (String code : lookups) {
+            keys.add("short:" + code);
+        }
+        List<String> cached = keys.isEmpty() ? List.of()
+                : redisCall(() -> redisTemplate.opsForValue().multiGet(keys), null);
+
+        Map<String, Long> ttlUpdates = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (int i = 0; i < lookups.size(); i++) {
+            String code = lookups.get(i);
+            String longUrl = cached != null ? cached.get(i) : null;
+            if (longUrl == null) {
+                cacheTtlPolicy.recordMiss();
+                misses.add(code);
+                continue;
+            }
+            results.put(code, new ResolveResult(code, longUrl, ResolveResult.Status.OK));
+            long extendTtl = cacheTtlPolicy.ttlOnHit(code, null);
+            if (extendTtl > 0) {
+                ttlUpdates.put(code, extendTtl);
+            }
+        }
+
+        // 2. 未命中的短码一次IN查询回源，逐项判断过期。
+        // MySQL的 short_code 比较不区分大小写，返回行的拼写可能与请求不同，按小写映射回请求的短码
+        Map<String, String> backfill = new HashMap<>();
+        Map<String, String> storedCodes = new HashMap<>();
+        if (!misses.isEmpty()) {
+            List<ShortUrl> rows = mysqlCall(() -> shortUrlMapper.selectByShortCodes(misses), null);
+            if (rows == null) {
+                // MySQL不可用：能从本地兜底缓存取到的短码照常返回，其余短码标记为暂不可用
+                rows = new ArrayList<>();
+                for (String code : misses) {
+                    String staleUrl = staleUrlCache.get(code);
+                    results.put(code, staleUrl != null
+                            ? new ResolveResult(code, staleUrl, ResolveResult.Status.OK)
+                            : new ResolveResult(code, null, ResolveResult.Status.UNAVAILABLE));
+                }
+            }
+            Map<String, List<String>> missesByFolded = new HashMap<>();
+            for (String code : misses) {
+                missesByFolded.computeIfAbsent(code.toLowerCase(Locale.ROOT), k -> new ArrayList<>()).add(code);
+            }
+            for (ShortUrl row : rows) {
+                for (String code : missesByFolded.getOrDefault(row.getShortCode().toLowerCase(Locale.ROOT), List.of())) {
+                    if (isExpired(row)) {
+                        results.put(code, new ResolveResult(code, null, ResolveResult.Status.EXPIRED));
+                        continue;
+                    }
+                    results.put(code, new ResolveResult(code, row.getLongUrl(), ResolveResult.Status.OK));
+                    storedCodes.put(code, row.getShortCode());
+                    // 缓存键与 getLongUrl 一样使用请求的拼写
+                    long ttl = cacheTtlPolicy.ttlOnWrite(code, row.getExpireAt());
+                    if (ttl > 0) {
+                        backfill.put(code, row.getLongUrl());
+                        ttlUpdates.put(code, ttl);
+                    }
+                }
+            }
+        }
+
+        // 3. 回填缓存与续期合并为一次pipeline
+        if (!ttlUpdates.isEmpty()) {
+            redisCall(() -> redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                    for (Map.Entry<String, Long> entry : ttlUpdates.entrySet()) {
+                        String key = "short:" + entry.getKey();
+                        String longUrl = backfill.get(entry.getKey());
+                        if (longUrl != null) {
+                            ops.opsForValue().set(key, longUrl, entry.getValue(), TimeUnit.SECONDS);
+                        } else {
+                            ops.expire(key, entry.getValue(), TimeUnit.SECONDS);
+                        }
+                    }
+                    return null;
+                }
+            }), null);
+        }
+
+        // 4. 访问计数在本地累积后批量写入，爬虫等非用户流量可跳过
+        // 待写入的短码已在第0步计数；只有大小写不同的请求属于同一条记录，按存储的拼写只计一次
+        List<ResolveResult> ordered = new ArrayList<>(codes.size());
+        Set<String> visited = new LinkedHashSet<>();
+        for (String code : codes) {
+            ResolveResult result = results.get(code);
+            if (result == null) {
+                result = new ResolveResult(code, null, ResolveResult.Status.NOT_FOUND);
+            } else if (result.getStatus() == ResolveResult.Status.OK && !pendingCodes.contains(code)) {
+                visited.add(storedCodes.getOrDefault(code, code));
+            }
+            ordered.add(result);
+        }
+        if (countVisits && !visited.isEmpty()) {
+            visitCounter.recordAll(visited);
+        }
+        return ordered;
+    }
+
+    /**
+     * 写入缓存，TTL由自适应策略决定且不超过链接剩余有效期
+     */
+    private void cacheLongUrl(String shortCode, String longUrl, LocalDateTime expireAt) {
+        long ttl = cacheTtlPolicy.ttlOnWrite(shortCode, expireAt);
+        if (ttl > 0) {
+            redisCall(() -> {
+                redisTemplate.opsForValue().set("short:" + shortCode, longUrl, ttl, TimeUnit.SECONDS); // 设置 Redis TTL（秒）
+                return null;
+            }, null);
+        }
+    }
+
+    /**
+     * 在Redis熔断器保护下调用，失败或熔断时返回降级值
+     */
+    private <T> T redisCall(Supplier<T> action, T fallback) {
+        try {
+            return redisCircuitBreaker.call(action);
+        } catch (RuntimeException e) {
+            logger.debug("Redis调用失败，使用降级值: {}", e.getMessage());
+            return fallback;
+        }
+    }
+
+    /**
+     * 在重定向隔离舱和MySQL熔断器保护下调用，失败、熔断或并发已满时返回降级值
+     */
+    private <T> T mysqlCall(Supplier<T> action, T fallback) {
+        try {
+            return redirectBulkhead.call(() -> mysqlCircuitBreaker.call(action));
+        } catch (RuntimeException e) {
+            logger.debug("MySQL调用失败，使用降级值: {}", e.getMessage());
+            return fallback;
+        }
+    }
+
     private boolean isExpired(ShortUrl shortUrl) {
         if (shortUrl.getExpireAt() == null) {
             return false; // 永不过期
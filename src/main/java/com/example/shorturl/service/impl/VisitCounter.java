@@ -0,0 +1,137 @@
+package com.example.shorturl.service.impl;
+
+import com.example.shorturl.mapper.ShortUrlMapper;
+import com.example.shorturl.util.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 访问计数器
+ * 请求线程只在本地累积访问次数，由后台定时任务合并为批量UPDATE写入数据库，重定向路径上不再同步访问MySQL；
+ * MySQL熔断或写入失败时保留在本地，恢复后继续补写。本地累积的短码数量有上限，超出部分丢弃并计入指标。
+ * 进程崩溃时最多丢失一个刷新周期内的计数，正常停止时会先写完
+ */
+@Component
+public class VisitCounter {
+
+    private static final Logger logger = LoggerFactory.getLogger(VisitCounter.class);
+
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    @Autowired
+    private ShortUrlMapper shortUrlMapper;
+
+    @Autowired
+    @Qualifier("mysqlCircuitBreaker")
+    private CircuitBreaker mysqlCircuitBreaker;
+
+    @Value("${short-url.resilience.visit-buffer.max-keys:100000}") // 本地累积的最大短码数
+    private int maxBufferedKeys;
+
+    private final Map<String, Long> buffered = new ConcurrentHashMap<>();
+
+    private final Counter droppedCounter;
+
+    public VisitCounter(MeterRegistry meterRegistry) {
+        this.droppedCounter = meterRegistry.counter("short_url.visits.dropped");
+        Gauge.builder("short_url.visits.buffered_keys", buffered, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * 记录一次访问
+     */
+    public void record(String shortCode) {
+        buffer(shortCode, 1);
+    }
+
+    /**
+     * 批量记录访问（每个短码各一次）
+     */
+    public void recordAll(Collection<String> shortCodes) {
+        for (String shortCode : shortCodes) {
+            buffer(shortCode, 1);
+        }
+    }
+
+    /**
+     * 把本地累积的访问次数分批写入数据库，每批一条UPDATE
+     * 同步执行：显式调用（停机、测试）会等待正在进行的定时刷写完成，返回时此前记录的访问都已落库
+     */
+    @Scheduled(fixedDelayString = "${short-url.resilience.visit-buffer.flush-interval-ms:1000}")
+    public synchronized void flushBuffered() {
+        if (buffered.isEmpty() || !mysqlCircuitBreaker.isCallPermitted()) {
+            return;
+        }
+        Map<String, Long> batch = new HashMap<>();
+        int flushed = 0;
+        for (String shortCode : buffered.keySet()) {
+            // remove与buffer中的merge对同一个键是原子的，不会丢失并发累积的次数
+            Long delta = buffered.remove(shortCode);
+            if (delta == null) {
+                continue;
+            }
+            batch.put(shortCode, delta);
+            if (batch.size() >= FLUSH_BATCH_SIZE) {
+                if (!write(batch)) {
+                    return;
+                }
+                flushed += batch.size();
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty() && write(batch)) {
+            flushed += batch.size();
+        }
+        if (flushed > 0) {
+            logger.debug("已写入 {} 个短链接的访问次数", flushed);
+        }
+    }
+
+    /**
+     * 停止前写完本地累积的访问次数
+     */
+    @PreDestroy
+    public void stop() {
+        flushBuffered();
+    }
+
+    /**
+     * 本地累积但尚未写入数据库的访问次数
+     */
+    public long pendingVisits(String shortCode) {
+        return buffered.getOrDefault(shortCode, 0L);
+    }
+
+    private boolean write(Map<String, Long> batch) {
+        try {
+            mysqlCircuitBreaker.run(() -> shortUrlMapper.addVisitCounts(batch));
+            return true;
+        } catch (RuntimeException e) {
+            batch.forEach(this::buffer);
+            logger.warn("写入访问次数失败，稍后重试: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void buffer(String shortCode, long delta) {
+        if (!buffered.containsKey(shortCode) && buffered.size() >= maxBufferedKeys) {
+            droppedCounter.increment(delta);
+            return;
+        }
+        buffered.merge(shortCode, delta, Long::sum);
+    }
+}
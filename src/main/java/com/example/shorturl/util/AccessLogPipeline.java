@@ -0,0 +1,367 @@
+package com.example.shorturl.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 异步访问日志管道
+ * 事件存放在预分配的环形缓冲区中：请求线程通过一次CAS占用槽位、填充字段后发布，不加锁、不分配对象，
+ * 也不做格式化和IO；缓冲区满时直接丢弃并计数，绝不阻塞请求线程。
+ * 单个后台线程按发布顺序批量格式化为JSON行写入本地文件，按天和按大小滚动，保留有限个历史文件
+ */
+public class AccessLogPipeline implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccessLogPipeline.class);
+
+    private static final DateTimeFormatter ROLL_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final Pattern ROLLED_NAME = Pattern.compile(".+\\.\\d{8}\\.\\d+\\.log");
+    private static final int MAX_BATCH = 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Path directory;
+    private final String baseName;
+    private final long maxFileBytes;
+    private final int maxHistory;
+
+    // 环形缓冲区：sequences[i] == 位置 表示槽位空闲可写，== 位置+1 表示事件已发布待写入
+    private final AccessEvent[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head; // 仅由写入线程推进
+    private volatile long drained; // 已写入并刷出（或因IO失败丢弃）的位置，槽位归还早于刷出
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final Thread writerThread;
+
+    // 以下字段仅由写入线程访问
+    private final StringBuilder line = new StringBuilder(512);
+    private Writer writer;
+    private long currentBytes;
+    private LocalDate currentDate;
+
+    private volatile boolean running = true;
+
+    public AccessLogPipeline(Path directory, String baseName, int capacity, long maxFileBytes, int maxHistory) throws IOException {
+        this.directory = directory;
+        this.baseName = baseName;
+        this.maxFileBytes = maxFileBytes;
+        this.maxHistory = maxHistory;
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1; // 向上取整为2的幂，用位与代替取模
+        this.slots = new AccessEvent[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            slots[i] = new AccessEvent();
+            sequences.set(i, i);
+        }
+        Files.createDirectories(directory);
+        openWriter();
+        this.writerThread = new Thread(this::writeLoop, "access-log-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * 提交一条访问事件
+     *
+     * @return false表示缓冲区已满被丢弃
+     */
+    public boolean offer(String route, String shortCode, String target, int status, long latencyNanos) {
+        long position = tail.get();
+        while (true) {
+            long lag = sequences.get((int) position & mask) - position;
+            if (lag == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = tail.get();
+            } else if (lag < 0) {
+                // 槽位上一轮的事件还没被写入线程取走，说明缓冲区已满
+                dropped.increment();
+                return false;
+            } else {
+                // 槽位已被其他请求线程抢先占用
+                position = tail.get();
+            }
+        }
+        int index = (int) position & mask;
+        AccessEvent event = slots[index];
+        event.timestamp = System.currentTimeMillis();
+        event.route = route;
+        event.shortCode = shortCode;
+        event.target = target;
+        event.status = status;
+        event.latencyNanos = latencyNanos;
+        sequences.set(index, position + 1); // 发布：写入线程看到序号后才会读取上面的字段
+        return true;
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    /**
+     * 等待缓冲区中已提交的事件全部写入文件，主要用于测试
+     */
+    public void awaitDrained(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (drained != tail.get() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer.close();
+    }
+
+    private void writeLoop() {
+        while (running || isPublished(head)) {
+            int available = 0;
+            while (available < MAX_BATCH && isPublished(head + available)) {
+                available++;
+            }
+            if (available == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            int done = 0;
+            try {
+                rollIfNeeded();
+                for (; done < available; done++) {
+                    format(slots[(int) head & mask]);
+                    writer.append(line);
+                    currentBytes += utf8Length(line); // maxFileBytes 按字节计，长链接可能含非ASCII字符
+                    release();
+                }
+                writer.flush();
+                written.add(available);
+            } catch (IOException e) {
+                logger.error("写入访问日志失败，丢弃 {} 条", available - done, e);
+                dropped.add(available - done);
+                for (; done < available; done++) {
+                    release();
+                }
+                reopenQuietly();
+            }
+            drained = head;
+        }
+    }
+
+    private boolean isPublished(long position) {
+        return sequences.get((int) position & mask) == position + 1;
+    }
+
+    /**
+     * 归还 head 处的槽位供下一轮使用
+     */
+    private void release() {
+        int index = (int) head & mask;
+        slots[index].clear();
+        sequences.set(index, head + slots.length);
+        head++;
+    }
+
+    /**
+     * 按UTF-8编码后的字节数，不为计数而实际编码
+     */
+    static long utf8Length(CharSequence text) {
+        long bytes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3; // 孤立的代理字符由编码器替换为 '?'，按上限计
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * 格式化为一行JSON，复用同一个StringBuilder
+     */
+    private void format(AccessEvent event) {
+        line.setLength(0);
+        line.append("{\"ts\":").append(event.timestamp)
+                .append(",\"route\":\"").append(event.route)
+                .append("\",\"status\":").append(event.status)
+                .append(",\"latency_us\":").append(event.latencyNanos / 1000);
+        if (event.shortCode != null) {
+            line.append(",\"code\":");
+            appendJsonString(event.shortCode);
+        }
+        if (event.target != null) {
+            line.append(",\"target\":");
+            appendJsonString(event.target);
+        }
+        line.append("}\n");
+    }
+
+    private void appendJsonString(String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> line.append("\\\"");
+                case '\\' -> line.append("\\\\");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\t' -> line.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+                }
+            }
+        }
+        line.append('"');
+    }
+
+    /**
+     * 日期变化或文件超过大小上限时滚动：当前文件重命名为 baseName.yyyyMMdd.序号.log，序号在同一天内递增
+     */
+    private void rollIfNeeded() throws IOException {
+        LocalDate today = LocalDate.now();
+        if (today.equals(currentDate) && currentBytes < maxFileBytes) {
+            return;
+        }
+        writer.close();
+        Path active = activeFile();
+        if (Files.size(active) > 0) {
+            String date = currentDate.format(ROLL_FORMAT);
+            List<Path> history = rolledFiles();
+            int index = 1;
+            for (Path path : history) {
+                String name = path.getFileName().toString();
+                if (name.startsWith(baseName + "." + date + ".")) {
+                    index = Math.max(index, rollIndex(name) + 1);
+                }
+            }
+            Files.move(active, directory.resolve(baseName + "." + date + "." + index + ".log"), StandardCopyOption.ATOMIC_MOVE);
+            // 文件名按日期和序号排序即为时间顺序，删除最旧的
+            List<Path> sorted = rolledFiles();
+            for (int i = 0; i < sorted.size() - maxHistory; i++) {
+                Files.deleteIfExists(sorted.get(i));
+            }
+        }
+        openWriter();
+    }
+
+    /**
+     * 已滚动的历史文件，按日期、序号升序
+     */
+    private List<Path> rolledFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> ROLLED_NAME.matcher(p.getFileName().toString()).matches()
+                            && p.getFileName().toString().startsWith(baseName + "."))
+                    .sorted(Comparator.comparing((Path p) -> rollDate(p.getFileName().toString()))
+                            .thenComparingInt(p -> rollIndex(p.getFileName().toString())))
+                    .toList();
+        }
+    }
+
+    private String rollDate(String name) {
+        return name.substring(baseName.length() + 1, baseName.length() + 9);
+    }
+
+    private int rollIndex(String name) {
+        return Integer.parseInt(name.substring(baseName.length() + 10, name.length() - 4));
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private void openWriter() throws IOException {
+        Path active = activeFile();
+        writer = new BufferedWriter(Files.newBufferedWriter(active, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND), 64 * 1024);
+        currentBytes = Files.size(active);
+        currentDate = Files.size(active) > 0
+                ? LocalDate.ofInstant(Instant.ofEpochMilli(lastModified(active)), ZoneId.systemDefault())
+                : LocalDate.now();
+    }
+
+    /**
+     * 写入失败后重新打开文件（例如文件被外部删除或磁盘恢复），失败则等待下一批再试
+     */
+    private void reopenQuietly() {
+        try {
+            writer.close();
+        } catch (IOException ignored) {
+            // 旧句柄可能已失效
+        }
+        try {
+            openWriter();
+        } catch (IOException e) {
+            logger.warn("重新打开访问日志文件失败: {}", e.getMessage());
+        }
+    }
+
+    private Path activeFile() {
+        return directory.resolve(baseName + ".log");
+    }
+
+    /**
+     * 可复用的访问事件，固定在环形缓冲区的槽位中循环使用，避免每次请求分配新对象
+     */
+    private static final class AccessEvent {
+        private long timestamp;
+        private String route;
+        private String shortCode;
+        private String target;
+        private int status;
+        private long latencyNanos;
+
+        private void clear() {
+            route = null;
+            shortCode = null;
+            target = null;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.shorturl.util;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 结构化访问日志
+ * 按路由采样后交给异步管道写入本地文件，请求线程上不做格式化和IO；
+ * 高频的重定向默认只采样一部分，创建和批量解析默认全量记录
+ */
+@Component
+public class AccessLogger {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccessLogger.class);
+
+    /**
+     * 记录访问日志的路由
+     */
+    public enum Route {
+        REDIRECT, SHORTEN, RESOLVE
+    }
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${short-url.access-log.enabled:true}") // 是否记录访问日志
+    private boolean enabled;
+
+    @Value("${short-url.access-log.directory:logs}") // 日志目录
+    private String directory;
+
+    @Value("${short-url.access-log.capacity:8192}") // 待写入事件上限，超过后丢弃
+    private int capacity;
+
+    @Value("${short-url.access-log.max-file-size-mb:100}") // 单个文件大小上限，超过后滚动
+    private long maxFileSizeMb;
+
+    @Value("${short-url.access-log.max-history:7}") // 保留的历史文件数
+    private int maxHistory;
+
+    @Value("${short-url.access-log.sample-rate.redirect:0.1}") // 重定向采样率
+    private double redirectSampleRate;
+
+    @Value("${short-url.access-log.sample-rate.shorten:1.0}") // 创建短链接采样率
+    private double shortenSampleRate;
+
+    @Value("${short-url.access-log.sample-rate.resolve:1.0}") // 批量解析采样率
+    private double resolveSampleRate;
+
+    private AccessLogPipeline pipeline;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            pipeline = new AccessLogPipeline(Path.of(directory), "access", capacity,
+                    maxFileSizeMb * 1024 * 1024, maxHistory);
+        } catch (IOException e) {
+            // 访问日志不可用不影响业务
+            logger.error("访问日志初始化失败，已禁用: {}", e.getMessage());
+            return;
+        }
+        FunctionCounter.builder("short_url.access_log.dropped", pipeline, AccessLogPipeline::getDropped)
+                .register(meterRegistry);
+        FunctionCounter.builder("short_url.access_log.written", pipeline, AccessLogPipeline::getWritten)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (pipeline != null) {
+            pipeline.close();
+        }
+    }
+
+    /**
+     * 记录一次访问
+     *
+     * @param route      路由
+     * @param shortCode  短码，可为null
+     * @param target     目标长链接，可为null
+     * @param status     HTTP状态码
+     * @param startNanos 请求开始时的 System.nanoTime()
+     */
+    public void log(Route route, String shortCode, String target, int status, long startNanos) {
+        if (pipeline == null || !sampled(route, status)) {
+            return;
+        }
+        pipeline.offer(route.name(), shortCode, target, status, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * 异常响应不参与采样，全部记录
+     */
+    private boolean sampled(Route route, int status) {
+        if (status >= 400) {
+            return true;
+        }
+        double rate = switch (route) {
+            case REDIRECT -> redirectSampleRate;
+            case SHORTEN -> shortenSampleRate;
+            case RESOLVE -> resolveSampleRate;
+        };
+        return rate >= 1.0 || ThreadLocalRandom.current().nextDouble() < rate;
+    }
+}
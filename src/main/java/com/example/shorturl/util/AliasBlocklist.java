@@ -0,0 +1,120 @@
+package com.example.shorturl.util;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * 自定义别名校验
+ * 保留字（与路由、管理路径冲突的词）整词匹配，屏蔽词出现在别名任意位置即拒绝；
+ * 两类词存放在同一棵内存字典树中，匹配前统一转小写并去掉分隔符，避免用 a-p-i 之类的写法绕过
+ */
+@Component
+public class AliasBlocklist {
+
+    // 字母数字开头和结尾，中间允许 - 和 _，不会与短码路径或创建日志的分隔符冲突
+    private static final Pattern ALIAS_PATTERN = Pattern.compile("^[A-Za-z0-9](?:[A-Za-z0-9_-]*[A-Za-z0-9])?$");
+
+    @Value("${short-url.alias.min-length:3}") // 别名最短长度
+    private int minLength;
+
+    @Value("${short-url.alias.max-length:32}") // 别名最大长度，不超过 short_code 列宽
+    private int maxLength;
+
+    @Value("${short-url.alias.reserved-words:api,admin,actuator,error,static,assets,index,login,logout,favicon,robots}") // 整词匹配
+    private List<String> reservedWords;
+
+    @Value("${short-url.alias.blocked-terms:}") // 出现在任意位置即拒绝
+    private List<String> blockedTerms;
+
+    private final TrieNode root = new TrieNode();
+
+    @PostConstruct
+    public void init() {
+        reservedWords.forEach(word -> add(word, false));
+        blockedTerms.forEach(term -> add(term, true));
+    }
+
+    /**
+     * 校验别名格式和屏蔽词
+     *
+     * @throws IllegalArgumentException 格式不合法
+     * @throws AliasUnavailableException 命中保留字或屏蔽词
+     */
+    public void check(String alias) {
+        if (alias.length() < minLength || alias.length() > maxLength) {
+            throw new IllegalArgumentException("别名长度应为 " + minLength + " 到 " + maxLength + " 个字符");
+        }
+        if (!ALIAS_PATTERN.matcher(alias).matches()) {
+            throw new IllegalArgumentException("别名只能包含字母、数字、- 和 _，且以字母或数字开头和结尾");
+        }
+        if (isBlocked(alias)) {
+            throw new AliasUnavailableException("别名为保留字或包含屏蔽词");
+        }
+    }
+
+    /**
+     * 从每个位置出发沿字典树匹配，单次检查的开销只与别名长度和最长词长度有关，与词表大小无关
+     */
+    public boolean isBlocked(String alias) {
+        String text = normalize(alias);
+        for (int start = 0; start < text.length(); start++) {
+            TrieNode node = root;
+            for (int i = start; i < text.length(); i++) {
+                node = node.children.get(text.charAt(i));
+                if (node == null) {
+                    break;
+                }
+                if (node.blockAnywhere) {
+                    return true;
+                }
+                if (node.reserved && start == 0 && i == text.length() - 1) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void add(String word, boolean anywhere) {
+        String normalized = normalize(word.trim());
+        if (normalized.isEmpty()) {
+            return;
+        }
+        TrieNode node = root;
+        for (int i = 0; i < normalized.length(); i++) {
+            node = node.children.computeIfAbsent(normalized.charAt(i), c -> new TrieNode());
+        }
+        if (anywhere) {
+            node.blockAnywhere = true;
+        } else {
+            node.reserved = true;
+        }
+    }
+
+    private static String normalize(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c != '-' && c != '_' && c != '.') {
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 字典树节点，初始化后只读，可被并发读取
+     */
+    private static final class TrieNode {
+        private final Map<Character, TrieNode> children = new HashMap<>();
+        private boolean reserved;
+        private boolean blockAnywhere;
+    }
+}
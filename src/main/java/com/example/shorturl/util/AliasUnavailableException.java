@@ -0,0 +1,11 @@
+package com.example.shorturl.util;
+
+/**
+ * 自定义别名已被占用或为保留字时抛出，由控制器转换为409
+ */
+public class AliasUnavailableException extends RuntimeException {
+
+    public AliasUnavailableException(String message) {
+        super(message);
+    }
+}
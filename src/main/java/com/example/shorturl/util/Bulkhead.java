@@ -0,0 +1,60 @@
+package com.example.shorturl.util;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 隔离舱：限制某类流量同时占用依赖的并发数，
+ * 避免清理/管理任务或变慢的数据库把重定向请求线程全部拖住
+ */
+public class Bulkhead {
+
+    private final String name;
+    private final Semaphore permits;
+    private final long maxWaitMillis;
+
+    public Bulkhead(String name, int maxConcurrent, long maxWaitMillis) {
+        this.name = name;
+        this.permits = new Semaphore(maxConcurrent);
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    /**
+     * 获取许可后执行调用
+     *
+     * @throws DependencyUnavailableException 等待超时仍未获得许可
+     */
+    public <T> T call(Supplier<T> action) {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DependencyUnavailableException(name + " 等待许可被中断", e);
+        }
+        if (!acquired) {
+            throw new DependencyUnavailableException(name + " 并发已满");
+        }
+        try {
+            return action.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    public void run(Runnable action) {
+        call(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    public String getName() {
+        return name;
+    }
+}
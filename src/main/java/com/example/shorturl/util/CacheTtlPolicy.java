@@ -0,0 +1,270 @@
+package com.example.shorturl.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 自适应缓存TTL策略
+ * 冷链接只占用较短的初始TTL，访问越频繁TTL越长（按访问次数翻倍分级），
+ * 且TTL始终不超过链接的剩余有效期；临近过期时按概率提前续期，避免热点键同时失效。
+ * 访问次数定期减半衰减，统计键数达到上限时按采样淘汰访问最少的键，新的热点仍能被统计和晋升
+ */
+@Component
+public class CacheTtlPolicy {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheTtlPolicy.class);
+
+    private static final double BYTES_PER_GB = 1024.0 * 1024 * 1024;
+
+    private static final int EVICTION_SAMPLES = 8;
+
+    @Autowired
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Value("${short-url.cache.initial-ttl-seconds:600}") // 新写入缓存的初始TTL
+    private long initialTtlSeconds;
+
+    @Value("${short-url.cache.max-ttl-seconds:86400}") // 热点链接TTL上限
+    private long maxTtlSeconds;
+
+    @Value("${short-url.cache.early-refresh-beta:1.0}") // 提前续期的激进程度，越大越早续期
+    private double earlyRefreshBeta;
+
+    @Value("${short-url.cache.jitter-ratio:0.1}") // TTL随机抖动比例，打散过期时间
+    private double jitterRatio;
+
+    @Value("${short-url.cache.max-tracked-keys:100000}") // 本地访问统计的最大键数
+    private int maxTrackedKeys;
+
+    private final Map<String, AccessStats> trackedKeys = new ConcurrentHashMap<>();
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter extendCounter;
+    private final Counter earlyRefreshCounter;
+
+    private volatile double usedMemoryBytes;
+
+    public CacheTtlPolicy(MeterRegistry meterRegistry) {
+        this.hitCounter = meterRegistry.counter("short_url.cache.hits");
+        this.missCounter = meterRegistry.counter("short_url.cache.misses");
+        this.extendCounter = meterRegistry.counter("short_url.cache.ttl.extensions");
+        this.earlyRefreshCounter = meterRegistry.counter("short_url.cache.ttl.early_refreshes");
+        Gauge.builder("short_url.cache.tracked_keys", trackedKeys, Map::size).register(meterRegistry);
+        Gauge.builder("short_url.cache.hit_ratio", this, CacheTtlPolicy::hitRatio).register(meterRegistry);
+        Gauge.builder("short_url.cache.hit_ratio_per_gb", this, CacheTtlPolicy::hitRatioPerGb).register(meterRegistry);
+    }
+
+    /**
+     * 计算新写入（创建或回填）缓存时的TTL，并记录本地状态
+     *
+     * @param shortCode 短码
+     * @param expireAt  链接过期时间，null表示永不过期
+     * @return TTL秒数，小于等于0表示链接已过期，不应写入缓存
+     */
+    public long ttlOnWrite(String shortCode, LocalDateTime expireAt) {
+        AccessStats stats = statsFor(shortCode);
+        long ttl = capToLifetime(jitter(tierTtl(stats.hits.get())), expireAt);
+        if (ttl > 0) {
+            stats.remember(ttl, expireAt);
+        }
+        return ttl;
+    }
+
+    /**
+     * 缓存命中时调用，根据访问频次判断是否需要延长TTL
+     *
+     * @param shortCode 短码
+     * @param expireAt  链接过期时间，未知时传null，本地也无记录则不续期
+     * @return 需要重新设置的TTL秒数，0表示无需续期
+     */
+    public long ttlOnHit(String shortCode, LocalDateTime expireAt) {
+        hitCounter.increment();
+        AccessStats stats = statsFor(shortCode);
+        long hits = stats.hits.incrementAndGet();
+        if (expireAt != null) {
+            stats.expireAt = expireAt;
+            stats.lifetimeKnown = true;
+        }
+        if (!stats.lifetimeKnown) {
+            return 0; // 不知道链接剩余有效期（例如由其他节点写入且MySQL不可用）时不续期，避免缓存比链接活得更久
+        }
+
+        long now = System.currentTimeMillis();
+        long desired = tierTtl(hits);
+        long remainingMillis = stats.deadlineMillis - now;
+
+        boolean promoted = desired > stats.ttlSeconds;
+        boolean earlyRefresh = !promoted && shouldRefreshEarly(stats.ttlSeconds, remainingMillis);
+        if (!promoted && !earlyRefresh) {
+            return 0;
+        }
+
+        long ttl = capToLifetime(jitter(desired), stats.expireAt);
+        if (ttl <= 0 || (stats.deadlineMillis > 0 && now + ttl * 1000 <= stats.deadlineMillis)) {
+            return 0;
+        }
+        stats.remember(ttl, stats.expireAt);
+        if (earlyRefresh) {
+            earlyRefreshCounter.increment();
+        } else {
+            extendCounter.increment();
+        }
+        return ttl;
+    }
+
+    /**
+     * 记录一次缓存未命中
+     */
+    public void recordMiss() {
+        missCounter.increment();
+    }
+
+    /**
+     * 链接被删除或失效时移除本地状态
+     */
+    public void forget(String shortCode) {
+        trackedKeys.remove(shortCode);
+    }
+
+    /**
+     * 定期清理本地已过期的统计、把访问次数减半衰减，并采样Redis内存占用。
+     * 衰减后访问次数反映的是最近几个周期的热度，不再访问的键逐渐降为冷键并优先被淘汰
+     */
+    @Scheduled(fixedDelayString = "${short-url.cache.sweep-interval-ms:60000}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        trackedKeys.values().removeIf(stats -> stats.deadlineMillis > 0 && stats.deadlineMillis < now);
+        for (AccessStats stats : trackedKeys.values()) {
+            stats.hits.updateAndGet(hits -> hits >> 1);
+        }
+
+        try {
+            Properties info = redisTemplate.execute(
+                    (RedisCallback<Properties>) connection -> connection.serverCommands().info("memory"));
+            if (info != null && info.getProperty("used_memory") != null) {
+                usedMemoryBytes = Double.parseDouble(info.getProperty("used_memory"));
+            }
+        } catch (Exception e) {
+            logger.debug("采样Redis内存占用失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 按访问次数分级：1次为初始TTL，此后每翻倍一次TTL翻倍，不超过上限
+     */
+    private long tierTtl(long hits) {
+        int tier = hits <= 1 ? 0 : 63 - Long.numberOfLeadingZeros(hits);
+        long ttl = initialTtlSeconds << Math.min(tier, 20);
+        return Math.min(ttl, maxTtlSeconds);
+    }
+
+    /**
+     * XFetch式概率提前续期：剩余时间越少，续期概率越高
+     */
+    private boolean shouldRefreshEarly(long ttlSeconds, long remainingMillis) {
+        if (remainingMillis <= 0) {
+            return true;
+        }
+        double window = ttlSeconds * 1000.0 * jitterRatio;
+        double draw = -Math.log(1.0 - ThreadLocalRandom.current().nextDouble());
+        return window * earlyRefreshBeta * draw >= remainingMillis;
+    }
+
+    private long jitter(long ttlSeconds) {
+        long spread = (long) (ttlSeconds * jitterRatio);
+        if (spread <= 0) {
+            return ttlSeconds;
+        }
+        return ttlSeconds - ThreadLocalRandom.current().nextLong(spread + 1);
+    }
+
+    private long capToLifetime(long ttlSeconds, LocalDateTime expireAt) {
+        if (expireAt == null) {
+            return ttlSeconds;
+        }
+        long remaining = Duration.between(LocalDateTime.now(), expireAt).getSeconds();
+        return Math.min(ttlSeconds, remaining);
+    }
+
+    private AccessStats statsFor(String shortCode) {
+        AccessStats stats = trackedKeys.get(shortCode);
+        if (stats == null) {
+            if (trackedKeys.size() >= maxTrackedKeys) {
+                evictColdest();
+            }
+            stats = trackedKeys.computeIfAbsent(shortCode, k -> new AccessStats());
+        }
+        return stats;
+    }
+
+    /**
+     * 近似LFU淘汰：从随机位置起采样少量键，移除其中访问次数最少的一个。
+     * 并发下可能略超上限，由下一次淘汰收回
+     */
+    private void evictColdest() {
+        Iterator<Map.Entry<String, AccessStats>> iterator = trackedKeys.entrySet().iterator();
+        int skipBound = Math.min(trackedKeys.size() - EVICTION_SAMPLES, EVICTION_SAMPLES * 4);
+        int skip = skipBound > 0 ? ThreadLocalRandom.current().nextInt(skipBound + 1) : 0;
+        for (int i = 0; i < skip && iterator.hasNext(); i++) {
+            iterator.next();
+        }
+        Map.Entry<String, AccessStats> coldest = null;
+        for (int i = 0; i < EVICTION_SAMPLES && iterator.hasNext(); i++) {
+            Map.Entry<String, AccessStats> candidate = iterator.next();
+            if (coldest == null || candidate.getValue().hits.get() < coldest.getValue().hits.get()) {
+                coldest = candidate;
+            }
+        }
+        if (coldest != null) {
+            trackedKeys.remove(coldest.getKey(), coldest.getValue());
+        }
+    }
+
+    private double hitRatio() {
+        double hits = hitCounter.count();
+        double total = hits + missCounter.count();
+        return total > 0 ? hits / total : 0;
+    }
+
+    private double hitRatioPerGb() {
+        double usedGb = usedMemoryBytes / BYTES_PER_GB;
+        return usedGb > 0 ? hitRatio() / usedGb : 0;
+    }
+
+    /**
+     * 单个短码的本地访问统计
+     */
+    private static class AccessStats {
+        private final AtomicLong hits = new AtomicLong();
+        private volatile long ttlSeconds;
+        private volatile long deadlineMillis;
+        private volatile LocalDateTime expireAt;
+        private volatile boolean lifetimeKnown;
+
+        private void remember(long ttlSeconds, LocalDateTime expireAt) {
+            this.ttlSeconds = ttlSeconds;
+            this.deadlineMillis = System.currentTimeMillis() + ttlSeconds * 1000;
+            this.expireAt = expireAt;
+            this.lifetimeKnown = true;
+        }
+    }
+}
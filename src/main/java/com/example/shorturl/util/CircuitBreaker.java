@@ -0,0 +1,118 @@
+package com.example.shorturl.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 熔断器
+ * 连续失败（包括超过延迟预算的慢调用）达到阈值后熔断，熔断期间直接拒绝调用；
+ * 熔断时间结束后放行一个探测调用，成功则恢复，失败则继续熔断
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final long slowCallNanos;
+    private final LongSupplier clock;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong openedAt = new AtomicLong();
+
+    public CircuitBreaker(String name, int failureThreshold, long openMillis, long slowCallMillis) {
+        this(name, failureThreshold, openMillis, slowCallMillis, System::nanoTime);
+    }
+
+    CircuitBreaker(String name, int failureThreshold, long openMillis, long slowCallMillis, LongSupplier clock) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMillis);
+        this.clock = clock;
+    }
+
+    /**
+     * 在熔断器保护下执行调用
+     *
+     * @throws DependencyUnavailableException 熔断中拒绝调用
+     */
+    public <T> T call(Supplier<T> action) {
+        if (!tryAcquirePermission()) {
+            throw new DependencyUnavailableException(name + " 熔断中");
+        }
+        long start = clock.getAsLong();
+        T result;
+        boolean failed = true;
+        try {
+            result = action.get();
+            failed = false;
+        } finally {
+            // 包括Error在内的任何异常都计为失败，否则半开状态的探测名额永远不会释放
+            if (failed) {
+                onFailure();
+            }
+        }
+        if (clock.getAsLong() - start > slowCallNanos) {
+            onFailure(); // 慢调用计为失败，但结果仍然返回
+        } else {
+            onSuccess();
+        }
+        return result;
+    }
+
+    public void run(Runnable action) {
+        call(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * 当前是否允许调用（不占用半开状态的探测名额）
+     */
+    public boolean isCallPermitted() {
+        State current = state.get();
+        return current == State.CLOSED
+                || (current == State.OPEN && clock.getAsLong() - openedAt.get() >= openNanos);
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private boolean tryAcquirePermission() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN && clock.getAsLong() - openedAt.get() >= openNanos) {
+            // 只有一个线程能转为半开状态并执行探测调用
+            return state.compareAndSet(State.OPEN, State.HALF_OPEN);
+        }
+        return false;
+    }
+
+    private void onSuccess() {
+        consecutiveFailures.set(0);
+        state.set(State.CLOSED);
+    }
+
+    private void onFailure() {
+        if (state.get() == State.HALF_OPEN || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            openedAt.set(clock.getAsLong());
+            state.set(State.OPEN);
+            consecutiveFailures.set(0);
+        }
+    }
+}
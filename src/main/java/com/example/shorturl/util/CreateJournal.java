@@ -0,0 +1,272 @@
+package com.example.shorturl.util;
+
+import com.example.shorturl.model.ShortUrl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 异步创建短链接的本地追加日志
+ * 每条创建记录先写入日志并fsync后才返回短码；多个并发写入由单个刷盘线程合并为一次fsync（组提交）。
+ * 记录写入MySQL后追加提交标记，重启时重放所有未提交的记录；全部记录提交后日志文件被截断。
+ *
+ * 记录格式（每行一条）：
+ * A|短码|创建时间毫秒|过期时间毫秒(-1表示永不过期)|Base64(长链接)
+ * C|短码
+ */
+public class CreateJournal implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CreateJournal.class);
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private final Path path;
+    private final int maxGroupSize;
+    private final FileChannel channel;
+    private final BlockingQueue<Record> queue = new LinkedBlockingQueue<>();
+    private final Thread flusher;
+
+    // 仅由刷盘线程访问：已写入但未提交的短码，为空时可截断日志
+    private final Set<String> uncommitted = new HashSet<>();
+
+    private volatile boolean running = true;
+
+    public CreateJournal(Path path, int maxGroupSize) throws IOException {
+        this.path = path;
+        this.maxGroupSize = maxGroupSize;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        uncommitted.addAll(readUncommitted(path).keySet());
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.channel.position(channel.size());
+        terminateTornTail();
+        this.flusher = new Thread(this::flushLoop, "create-journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * 追加一条创建记录，返回的Future在记录fsync到磁盘后完成
+     */
+    public CompletableFuture<Void> append(ShortUrl shortUrl) {
+        return enqueue(new Record(shortUrl.getShortCode(), false, encode(shortUrl)));
+    }
+
+    /**
+     * 标记一批记录已写入MySQL，无需等待刷盘：提交标记丢失只会导致重启时重复写入，写入端会识别出自己已写入的行
+     */
+    public void markCommitted(Collection<String> shortCodes) {
+        for (String code : shortCodes) {
+            enqueue(new Record(code, true, "C|" + code + "\n"));
+        }
+    }
+
+    /**
+     * 记录与数据库中他人的短码冲突、无法写入：以相同格式转存到 .rejected 文件并fsync，然后标记提交，
+     * 供人工核对（例如通知用户或重新分配短码），不会在重启时反复重放
+     */
+    public synchronized void reject(ShortUrl shortUrl) throws IOException {
+        Path rejected = path.resolveSibling(path.getFileName() + ".rejected");
+        try (FileChannel out = FileChannel.open(rejected, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(encode(shortUrl).getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(false);
+        }
+        markCommitted(List.of(shortUrl.getShortCode()));
+    }
+
+    /**
+     * 读取日志中所有未提交的记录，用于崩溃后重放
+     */
+    public List<ShortUrl> replay() throws IOException {
+        return new ArrayList<>(readUncommitted(path).values());
+    }
+
+    @Override
+    public void close() throws IOException {
+        // 不中断刷盘线程：FileChannel在中断时会被关闭，刷盘线程会在排空队列后自行退出
+        running = false;
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    /**
+     * 崩溃可能留下没有换行的半行记录，补一个换行，避免后续记录与其拼接成一行而被当作损坏记录丢弃
+     */
+    private void terminateTornTail() throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            return;
+        }
+        ByteBuffer last = ByteBuffer.allocate(1);
+        channel.read(last, size - 1);
+        if (last.get(0) != '\n') {
+            channel.write(ByteBuffer.wrap(new byte[]{'\n'}));
+            channel.force(false);
+        }
+    }
+
+    private CompletableFuture<Void> enqueue(Record record) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new IOException("创建日志已关闭"));
+        }
+        queue.add(record);
+        return record.done;
+    }
+
+    /**
+     * 组提交：取出当前排队的全部记录一次写入，只调用一次force
+     */
+    private void flushLoop() {
+        List<Record> group = new ArrayList<>(maxGroupSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Record first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                queue.drainTo(group, maxGroupSize - 1);
+                writeGroup(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    private void writeGroup(List<Record> group) {
+        if (group.isEmpty()) {
+            return;
+        }
+        try {
+            StringBuilder sb = new StringBuilder();
+            for (Record record : group) {
+                sb.append(record.line);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+
+            for (Record record : group) {
+                if (record.commit) {
+                    uncommitted.remove(record.shortCode);
+                } else {
+                    uncommitted.add(record.shortCode);
+                }
+                record.done.complete(null);
+            }
+
+            // 所有记录均已提交，截断日志避免无限增长
+            if (uncommitted.isEmpty()) {
+                channel.truncate(0);
+                channel.position(0);
+            }
+        } catch (IOException e) {
+            logger.error("写入创建日志失败", e);
+            for (Record record : group) {
+                record.done.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * 解析日志，忽略崩溃时写了一半的末尾行
+     */
+    private static Map<String, ShortUrl> readUncommitted(Path path) throws IOException {
+        Map<String, ShortUrl> pending = new LinkedHashMap<>();
+        if (!Files.exists(path)) {
+            return pending;
+        }
+        // 记录均为ASCII，按ISO-8859-1读取以免损坏的字节导致解码异常
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.ISO_8859_1)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split("\\|");
+                try {
+                    if (parts.length == 2 && "C".equals(parts[0])) {
+                        pending.remove(parts[1]);
+                    } else if (parts.length == 5 && "A".equals(parts[0])) {
+                        long expireMillis = Long.parseLong(parts[3]);
+                        ShortUrl shortUrl = new ShortUrl();
+                        shortUrl.setShortCode(parts[1]);
+                        shortUrl.setCreatedAt(fromMillis(Long.parseLong(parts[2])));
+                        shortUrl.setExpireAt(expireMillis < 0 ? null : fromMillis(expireMillis));
+                        shortUrl.setLongUrl(new String(Base64.getUrlDecoder().decode(parts[4]), StandardCharsets.UTF_8));
+                        shortUrl.setVisitCount(0L);
+                        pending.put(shortUrl.getShortCode(), shortUrl);
+                    } else {
+                        logger.warn("跳过无法解析的创建日志记录: {}", line);
+                    }
+                } catch (IllegalArgumentException e) {
+                    logger.warn("跳过损坏的创建日志记录: {}", line);
+                }
+            }
+        }
+        return pending;
+    }
+
+    private static String encode(ShortUrl shortUrl) {
+        return "A|" + shortUrl.getShortCode()
+                + "|" + toMillis(shortUrl.getCreatedAt())
+                + "|" + (shortUrl.getExpireAt() == null ? -1 : toMillis(shortUrl.getExpireAt()))
+                + "|" + Base64.getUrlEncoder().encodeToString(shortUrl.getLongUrl().getBytes(StandardCharsets.UTF_8))
+                + "\n";
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZONE).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime fromMillis(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZONE);
+    }
+
+    private static class Record {
+        private final String shortCode;
+        private final boolean commit;
+        private final String line;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        private Record(String shortCode, boolean commit, String line) {
+            this.shortCode = shortCode;
+            this.commit = commit;
+            this.line = line;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.shorturl.util;
+
+/**
+ * 依赖（Redis/MySQL）熔断、隔离舱已满或不可用时抛出，由控制器转换为503
+ */
+public class DependencyUnavailableException extends RuntimeException {
+
+    public DependencyUnavailableException(String message) {
+        super(message);
+    }
+
+    public DependencyUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
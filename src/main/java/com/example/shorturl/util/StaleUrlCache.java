@@ -0,0 +1,77 @@
+package com.example.shorturl.util;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本地兜底缓存
+ * 记录最近成功解析的短链接，仅在Redis和MySQL都不可用时使用，且只返回不超过最大陈旧时间、未过期的数据
+ */
+public class StaleUrlCache {
+
+    private final int maxEntries;
+    private final long maxStalenessNanos;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public StaleUrlCache(int maxEntries, long maxStalenessSeconds) {
+        this.maxEntries = maxEntries;
+        this.maxStalenessNanos = TimeUnit.SECONDS.toNanos(maxStalenessSeconds);
+    }
+
+    /**
+     * 记录一次成功解析；已有较新的记录时不重复写入
+     */
+    public void put(String shortCode, String longUrl, LocalDateTime expireAt) {
+        long now = System.nanoTime();
+        Entry existing = entries.get(shortCode);
+        if (existing != null && existing.longUrl.equals(longUrl)
+                && now - existing.storedAt < maxStalenessNanos / 2
+                && (expireAt == null || expireAt.equals(existing.expireAt))) {
+            return;
+        }
+        if (existing == null && entries.size() >= maxEntries) {
+            evictOne();
+        }
+        entries.put(shortCode, new Entry(longUrl, expireAt != null ? expireAt : existing != null ? existing.expireAt : null, now));
+    }
+
+    /**
+     * 获取陈旧时间在允许范围内且未过期的长链接
+     *
+     * @return 长链接，没有可用数据时返回null
+     */
+    public String get(String shortCode) {
+        Entry entry = entries.get(shortCode);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.storedAt > maxStalenessNanos
+                || (entry.expireAt != null && LocalDateTime.now().isAfter(entry.expireAt))) {
+            entries.remove(shortCode, entry);
+            return null;
+        }
+        return entry.longUrl;
+    }
+
+    public void remove(String shortCode) {
+        entries.remove(shortCode);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evictOne() {
+        Iterator<String> iterator = entries.keySet().iterator();
+        if (iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private record Entry(String longUrl, LocalDateTime expireAt, long storedAt) {
+    }
+}
@@ -1,16 +1,16 @@
 package com.example.shorturl;
 
 import com.example.shorturl.service.ShortUrlService;
+import com.example.shorturl.support.OfflineTestSupport;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.StringRedisTemplate;
 
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 
-@SpringBootTest
-class ShortUrlSystemApplicationTests {
+class ShortUrlSystemApplicationTests extends OfflineTestSupport {
 
     @Autowired
     private ShortUrlService shortUrlService;
@@ -18,6 +18,9 @@ class ShortUrlSystemApplicationTests {
     @Autowired
     private StringRedisTemplate redisTemplate;
 
+    @Value("${short-url.domain}")
+    private String domain;
+
     @Test
     void contextLoads() {
     }
@@ -26,7 +29,7 @@ class ShortUrlSystemApplicationTests {
     public void testCreateAndRedirect() {
         String longUrl = "https://www.example.com";
         String shortUrl = shortUrlService.createShortUrl(longUrl);
-        assert shortUrl.startsWith("http://localhost:8087/");
+        assert shortUrl.startsWith(domain);
         String retrievedUrl = shortUrlService.getLongUrl(shortUrl.substring(shortUrl.length() - 6));
         assert longUrl.equals(retrievedUrl);
     }
@@ -0,0 +1,154 @@
+package com.example.shorturl.config;
+
+import com.example.shorturl.mapper.ShortUrlMapper;
+import com.example.shorturl.model.PartitionInfo;
+import com.example.shorturl.service.ArchiveService;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 分区规划与清理流程的单元测试
+ * 分区DDL只在MySQL上执行，这里验证与数据库无关的规划逻辑，并用模拟的Mapper验证清理顺序，
+ * H2环境下 PartitionManager 自动回退到逐行清理
+ */
+class PartitionManagerTests {
+
+    private static final PartitionInfo HISTORY = new PartitionInfo("p_history", "'2026-10-19 00:00:00'");
+    private static final PartitionInfo FUTURE = new PartitionInfo("p_future", "'9999-01-01 00:00:00'");
+    private static final PartitionInfo NEVER = new PartitionInfo("p_never", "MAXVALUE");
+
+    @Test
+    void planDailyPartitionsAfterMigration() {
+        List<PartitionInfo> planned = PartitionManager.planFuturePartitions(
+                List.of(HISTORY, FUTURE, NEVER), LocalDate.of(2026, 10, 19),
+                PartitionManager.Granularity.DAY, 3);
+
+        assertEquals(3, planned.size());
+        assertEquals("p20261019", planned.get(0).getName());
+        assertEquals("2026-10-20 00:00:00", planned.get(0).getDescription());
+        assertEquals("p20261021", planned.get(2).getName());
+    }
+
+    @Test
+    void planContinuesFromExistingPartitions() {
+        List<PartitionInfo> existing = List.of(HISTORY,
+                new PartitionInfo("p20261019", "'2026-10-20 00:00:00'"),
+                new PartitionInfo("p20261020", "'2026-10-21 00:00:00'"),
+                FUTURE, NEVER);
+
+        List<PartitionInfo> planned = PartitionManager.planFuturePartitions(
+                existing, LocalDate.of(2026, 10, 20), PartitionManager.Granularity.DAY, 2);
+
+        assertEquals(1, planned.size());
+        assertEquals("p20261021", planned.get(0).getName());
+
+        assertTrue(PartitionManager.planFuturePartitions(
+                existing, LocalDate.of(2026, 10, 19), PartitionManager.Granularity.DAY, 2).isEmpty());
+    }
+
+    @Test
+    void planWeeklyPartitionsAlignedToMonday() {
+        List<PartitionInfo> planned = PartitionManager.planFuturePartitions(
+                List.of(FUTURE, NEVER), LocalDate.of(2026, 10, 22),
+                PartitionManager.Granularity.WEEK, 2);
+
+        assertEquals(2, planned.size());
+        assertEquals("p20261019", planned.get(0).getName());
+        assertEquals("2026-10-26 00:00:00", planned.get(0).getDescription());
+    }
+
+    @Test
+    void weeklyPlanRealignsToMondayAfterUnalignedHistoryBound() {
+        // 周三执行迁移，p_history 的上界不是周一
+        PartitionInfo history = new PartitionInfo("p_history", "'2026-10-21 00:00:00'");
+
+        List<PartitionInfo> planned = PartitionManager.planFuturePartitions(
+                List.of(history, FUTURE, NEVER), LocalDate.of(2026, 10, 21),
+                PartitionManager.Granularity.WEEK, 2);
+
+        assertEquals(2, planned.size());
+        assertEquals("p20261021", planned.get(0).getName());
+        assertEquals("2026-10-26 00:00:00", planned.get(0).getDescription());
+        assertEquals("p20261026", planned.get(1).getName());
+        assertEquals("2026-11-02 00:00:00", planned.get(1).getDescription());
+    }
+
+    @Test
+    void truncatedPartitionsAreMergedIntoHistoryAndUnregistered() {
+        ShortUrlMapper mapper = mock(ShortUrlMapper.class);
+        PartitionManager manager = manager(mapper, PartitionManager.PurgeMode.TRUNCATE);
+        when(mapper.selectPartitions()).thenReturn(List.of(HISTORY,
+                new PartitionInfo("p20261019", "'2026-10-20 00:00:00'"),
+                new PartitionInfo("p20261020", "'2026-10-21 00:00:00'"),
+                FUTURE, NEVER));
+        when(mapper.partitionHasRows("p_history")).thenReturn(false); // 上次已清空
+        when(mapper.partitionHasRows("p20261019")).thenReturn(true);
+
+        assertEquals(1, manager.purgeExpiredPartitions(LocalDateTime.of(2026, 10, 20, 0, 0)));
+
+        verify(mapper, never()).truncatePartition("p_history");
+        verify(mapper).truncatePartition("p20261019");
+        verify(mapper, never()).dropPartition(anyString());
+        verify(mapper).mergeIntoHistoryPartition(List.of(HISTORY, new PartitionInfo("p20261019", "'2026-10-20 00:00:00'")),
+                "2026-10-20 00:00:00");
+        verify(mapper).deleteRegisteredCodesBefore(LocalDateTime.of(2026, 10, 20, 0, 0), 5000);
+    }
+
+    @Test
+    void registryIsOnlyClearedUpToFirstFailedPartition() {
+        ShortUrlMapper mapper = mock(ShortUrlMapper.class);
+        PartitionManager manager = manager(mapper, PartitionManager.PurgeMode.DROP);
+        when(mapper.selectPartitions()).thenReturn(List.of(HISTORY,
+                new PartitionInfo("p20261019", "'2026-10-20 00:00:00'"),
+                new PartitionInfo("p20261020", "'2026-10-21 00:00:00'"),
+                FUTURE, NEVER));
+        when(mapper.partitionHasRows(anyString())).thenReturn(true);
+        doThrow(new RuntimeException("lock wait timeout")).when(mapper).dropPartition("p20261019");
+
+        manager.purgeExpiredPartitions(LocalDateTime.of(2026, 10, 21, 0, 0));
+
+        verify(mapper).dropPartition("p_history");
+        verify(mapper).dropPartition("p20261020");
+        // p20261019 仍在，其中的短码必须继续占用注册表
+        verify(mapper).deleteRegisteredCodesBefore(LocalDateTime.of(2026, 10, 19, 0, 0), 5000);
+        verify(mapper, never()).mergeIntoHistoryPartition(any(), any());
+    }
+
+    @Test
+    void onlyFullyExpiredPartitionsArePurged() {
+        List<PartitionInfo> existing = List.of(HISTORY,
+                new PartitionInfo("p20261019", "'2026-10-20 00:00:00'"),
+                new PartitionInfo("p20261020", "'2026-10-21 00:00:00'"),
+                FUTURE, NEVER);
+
+        List<PartitionInfo> expired = PartitionManager.expiredPartitions(
+                existing, LocalDateTime.of(2026, 10, 20, 0, 0));
+
+        assertEquals(List.of("p_history", "p20261019"), expired.stream().map(PartitionInfo::getName).toList());
+    }
+
+    private static PartitionManager manager(ShortUrlMapper mapper, PartitionManager.PurgeMode purgeMode) {
+        ArchiveService archiveService = mock(ArchiveService.class);
+        when(mapper.deleteRegisteredCodesBefore(any(), anyInt())).thenReturn(0);
+        PartitionManager manager = new PartitionManager();
+        ReflectionTestUtils.setField(manager, "shortUrlMapper", mapper);
+        ReflectionTestUtils.setField(manager, "archiveService", archiveService);
+        ReflectionTestUtils.setField(manager, "purgeMode", purgeMode);
+        return manager;
+    }
+}
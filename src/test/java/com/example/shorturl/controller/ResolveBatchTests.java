@@ -0,0 +1,129 @@
+package com.example.shorturl.controller;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.example.shorturl.mapper.ShortUrlMapper;
+import com.example.shorturl.model.ShortUrl;
+import com.example.shorturl.service.impl.VisitCounter;
+import com.example.shorturl.support.OfflineTestSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 批量解析接口测试：缓存命中、回源、过期、不存在的短码混合请求，重复短码只计一次访问，以及请求校验
+ */
+@AutoConfigureMockMvc
+class ResolveBatchTests extends OfflineTestSupport {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ShortUrlMapper shortUrlMapper;
+
+    @Autowired
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Autowired
+    private VisitCounter visitCounter;
+
+    @Value("${short-url.batch.max-size:1000}")
+    private int maxBatchSize;
+
+    @Test
+    void mixedCodesResolveInRequestOrderAndDuplicatesCountOnce() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        insert("rbhit1", "https://www.example.com/hit", now.plusDays(1));
+        insert("rbmis1", "https://www.example.com/miss", now.plusDays(1));
+        insert("rbexp1", "https://www.example.com/expired", now.minusDays(1));
+        // 只有 rbhit1 在缓存中，rbmis1 需要回源
+        redisTemplate.opsForValue().set("short:rbhit1", "https://www.example.com/hit", 60, TimeUnit.SECONDS);
+
+        mockMvc.perform(post("/api/resolve")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"rbhit1\",\"rbmis1\",\"rbexp1\",\"rbnone\",\"rbhit1\",\"rbmis1\"]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(4))
+                .andExpect(jsonPath("$[0].shortCode").value("rbhit1"))
+                .andExpect(jsonPath("$[0].status").value("OK"))
+                .andExpect(jsonPath("$[0].longUrl").value("https://www.example.com/hit"))
+                .andExpect(jsonPath("$[1].shortCode").value("rbmis1"))
+                .andExpect(jsonPath("$[1].status").value("OK"))
+                .andExpect(jsonPath("$[1].longUrl").value("https://www.example.com/miss"))
+                .andExpect(jsonPath("$[2].shortCode").value("rbexp1"))
+                .andExpect(jsonPath("$[2].status").value("EXPIRED"))
+                .andExpect(jsonPath("$[2].longUrl").doesNotExist())
+                .andExpect(jsonPath("$[3].shortCode").value("rbnone"))
+                .andExpect(jsonPath("$[3].status").value("NOT_FOUND"));
+
+        assertEquals("https://www.example.com/miss", redisTemplate.opsForValue().get("short:rbmis1"), "回源结果应回填缓存");
+
+        visitCounter.flushBuffered();
+        assertEquals(1L, visitCount("rbhit1"));
+        assertEquals(1L, visitCount("rbmis1"));
+        assertEquals(0L, visitCount("rbexp1"));
+    }
+
+    @Test
+    void previewRequestsDoNotCountVisits() throws Exception {
+        insert("rbprv1", "https://www.example.com/preview", LocalDateTime.now().plusDays(1));
+
+        mockMvc.perform(post("/api/resolve?countVisits=false")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"rbprv1\"]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("OK"));
+
+        visitCounter.flushBuffered();
+        assertEquals(0L, visitCount("rbprv1"));
+    }
+
+    @Test
+    void batchesOverTheLimitAreRejected() throws Exception {
+        List<String> codes = new ArrayList<>();
+        for (int i = 0; i <= maxBatchSize; i++) {
+            codes.add("\"c" + i + "\"");
+        }
+
+        mockMvc.perform(post("/api/resolve")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + String.join(",", codes) + "]"))
+                .andExpect(status().isPayloadTooLarge());
+    }
+
+    @Test
+    void nullCodesAreRejected() throws Exception {
+        mockMvc.perform(post("/api/resolve")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"rbhit1\",null]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private void insert(String shortCode, String longUrl, LocalDateTime expireAt) {
+        ShortUrl shortUrl = new ShortUrl();
+        shortUrl.setShortCode(shortCode);
+        shortUrl.setLongUrl(longUrl);
+        shortUrl.setCreatedAt(LocalDateTime.now().minusDays(2));
+        shortUrl.setVisitCount(0L);
+        shortUrl.setExpireAt(expireAt);
+        shortUrlMapper.insert(shortUrl);
+    }
+
+    private long visitCount(String shortCode) {
+        return shortUrlMapper.selectOne(new QueryWrapper<ShortUrl>().eq("short_code", shortCode)).getVisitCount();
+    }
+}
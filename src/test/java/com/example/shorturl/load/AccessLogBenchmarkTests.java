@@ -0,0 +1,63 @@
+package com.example.shorturl.load;
+
+import com.example.shorturl.support.LoadRunner;
+import com.example.shorturl.util.AccessLogPipeline;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 访问日志吞吐量基准：同步打印与异步管道在相同条件下对比
+ * 两边都记录每一次请求、输出相同的JSON行，异步管道的耗时包含等待全部事件写入文件，吞吐量按实际落盘的行数计算。
+ * 结果受机器负载影响，默认构建不运行，使用 mvn -Pbenchmark test 执行
+ */
+@Tag("benchmark")
+class AccessLogBenchmarkTests {
+
+    private static final int THREADS = Integer.getInteger("load.threads", 16);
+    private static final int OPS_PER_THREAD = Integer.getInteger("load.ops", 20_000);
+    private static final String LONG_URL = "https://www.example.com/articles/2024/some-long-path?utm_source=newsletter&utm_medium=email";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void asyncPipelineOutperformsSynchronousPrinting() throws Exception {
+        // 基线：请求线程上拼接同样的JSON行，同步打印到自动刷新的 PrintStream（与 System.out 相同，这里指向文件以免刷屏）
+        LoadRunner.Result baseline;
+        try (PrintStream out = new PrintStream(new FileOutputStream(dir.resolve("stdout.log").toFile()), true,
+                StandardCharsets.UTF_8)) {
+            baseline = LoadRunner.run("sync-println", THREADS, OPS_PER_THREAD, (thread, i) -> {
+                long start = System.nanoTime();
+                out.println("{\"ts\":" + System.currentTimeMillis() + ",\"route\":\"REDIRECT\",\"status\":302,\"latency_us\":"
+                        + (System.nanoTime() - start) / 1000 + ",\"code\":\"abc123\",\"target\":\"" + LONG_URL + "\"}");
+            });
+        }
+        double baselineLinesPerSecond = baseline.throughput();
+
+        double pipelinedLinesPerSecond;
+        try (AccessLogPipeline pipeline = new AccessLogPipeline(dir.resolve("async"), "access", 65_536, 1024L * 1024 * 1024, 3)) {
+            long begin = System.nanoTime();
+            LoadRunner.run("async-pipeline", THREADS, OPS_PER_THREAD, (thread, i) -> {
+                long start = System.nanoTime();
+                pipeline.offer("REDIRECT", "abc123", LONG_URL, 302, System.nanoTime() - start);
+            });
+            pipeline.awaitDrained(60_000);
+            long elapsed = System.nanoTime() - begin;
+            pipelinedLinesPerSecond = pipeline.getWritten() / (elapsed / 1e9);
+            System.out.printf("async-pipeline written=%d dropped=%d, 含排空的落盘吞吐=%.0f 行/s%n",
+                    pipeline.getWritten(), pipeline.getDropped(), pipelinedLinesPerSecond);
+        }
+
+        System.out.printf("吞吐量提升 %.1fx%n", pipelinedLinesPerSecond / baselineLinesPerSecond);
+        assertTrue(pipelinedLinesPerSecond > baselineLinesPerSecond,
+                String.format("异步管道落盘吞吐量应高于同步打印: %.0f vs %.0f 行/s", pipelinedLinesPerSecond, baselineLinesPerSecond));
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.shorturl.load;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.example.shorturl.mapper.ShortUrlMapper;
+import com.example.shorturl.model.ShortUrl;
+import com.example.shorturl.service.ShortUrlService;
+import com.example.shorturl.support.EmbeddedRedisServer;
+import com.example.shorturl.support.LoadRunner;
+import com.example.shorturl.support.OfflineTestSupport;
+import com.example.shorturl.util.AliasUnavailableException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 自定义别名并发抢占测试：多个线程同时申请同一别名，只能有一个成功，且短码指向获胜者的长链接；
+ * 别名与随机短码共用不区分大小写的预留命名空间
+ */
+class AliasContentionTests extends OfflineTestSupport {
+
+    private static final int THREADS = Integer.getInteger("load.threads", 32);
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private ShortUrlService shortUrlService;
+
+    @Autowired
+    private ShortUrlMapper shortUrlMapper;
+
+    @Autowired
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Test
+    void exactlyOneThreadWinsTheSameAlias() throws Exception {
+        String alias = "spring-sale";
+        Map<Integer, String> winners = new ConcurrentHashMap<>();
+        AtomicInteger conflicts = new AtomicInteger();
+
+        LoadRunner.run("alias-claim", THREADS, 1, (thread, i) -> {
+            try {
+                shortUrlService.createShortUrl("https://www.example.com/campaign/" + thread, alias);
+                winners.put(thread, "https://www.example.com/campaign/" + thread);
+            } catch (AliasUnavailableException e) {
+                conflicts.incrementAndGet();
+            }
+        });
+
+        assertEquals(1, winners.size(), "同一别名被多个请求占用: " + winners);
+        assertEquals(THREADS - 1, conflicts.get());
+        assertEquals(1L, countRows(alias));
+        assertEquals(winners.values().iterator().next(), shortUrlService.getLongUrl(alias));
+    }
+
+    @Test
+    void everyContendedAliasHasExactlyOneOwner() throws Exception {
+        Map<String, AtomicInteger> owners = new ConcurrentHashMap<>();
+
+        // 每个线程依次申请 campaign-0 ~ campaign-19，同一轮的别名在线程间竞争
+        LoadRunner.run("alias-rounds", THREADS, ROUNDS, (thread, i) -> {
+            String alias = "campaign-" + i;
+            try {
+                shortUrlService.createShortUrl("https://www.example.com/round/" + i + "/" + thread, alias);
+                owners.computeIfAbsent(alias, k -> new AtomicInteger()).incrementAndGet();
+            } catch (AliasUnavailableException ignored) {
+                // 已被其他线程占用
+            }
+        });
+
+        for (int i = 0; i < ROUNDS; i++) {
+            String alias = "campaign-" + i;
+            assertEquals(1, owners.get(alias).get(), "别名 " + alias + " 的成功次数不为1");
+            assertEquals(1L, countRows(alias));
+        }
+    }
+
+    @Test
+    void databaseUniqueKeyBacksUpLostReservation() {
+        String alias = "summer-sale";
+        shortUrlService.createShortUrl("https://www.example.com/summer", alias);
+
+        // 模拟Redis重启导致预留键丢失，第二次申请在数据库唯一键处被拒绝
+        EmbeddedRedisServer.shared().flushAll();
+        assertThrows(AliasUnavailableException.class,
+                () -> shortUrlService.createShortUrl("https://www.example.com/other", alias));
+
+        assertEquals(1L, countRows(alias));
+        assertEquals("https://www.example.com/summer", shortUrlService.getLongUrl(alias));
+    }
+
+    @Test
+    void aliasesDifferingOnlyInCaseShareOneReservation() {
+        shortUrlService.createShortUrl("https://www.example.com/winter", "Winter-Sale");
+
+        assertThrows(AliasUnavailableException.class,
+                () -> shortUrlService.createShortUrl("https://www.example.com/other", "winter-sale"));
+        assertEquals(0L, countRows("winter-sale"));
+    }
+
+    @Test
+    void aliasCannotTakeACodeReservedByAGeneratedLink() {
+        // 模拟另一节点异步创建、尚未写入数据库的随机短码
+        redisTemplate.opsForValue().set("code:pndg42", "pNdG42", 60, TimeUnit.SECONDS);
+
+        assertThrows(AliasUnavailableException.class,
+                () -> shortUrlService.createShortUrl("https://www.example.com/late", "PNDG42"));
+        assertEquals(0L, countRows("PNDG42"));
+    }
+
+    @Test
+    void reservedWordsAreRejected() {
+        assertThrows(AliasUnavailableException.class,
+                () -> shortUrlService.createShortUrl("https://www.example.com", "admin"));
+        assertThrows(AliasUnavailableException.class,
+                () -> shortUrlService.createShortUrl("https://www.example.com", "A-p-I"));
+        assertThrows(IllegalArgumentException.class,
+                () -> shortUrlService.createShortUrl("https://www.example.com", "bad/alias"));
+    }
+
+    private long countRows(String alias) {
+        return shortUrlMapper.selectCount(new QueryWrapper<ShortUrl>().eq("short_code", alias));
+    }
+}
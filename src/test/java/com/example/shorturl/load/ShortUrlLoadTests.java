@@ -0,0 +1,117 @@
+package com.example.shorturl.load;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.example.shorturl.mapper.ShortUrlMapper;
+import com.example.shorturl.model.ShortUrl;
+import com.example.shorturl.service.ShortUrlService;
+import com.example.shorturl.service.impl.VisitCounter;
+import com.example.shorturl.support.LoadRunner;
+import com.example.shorturl.support.OfflineTestSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 多线程负载测试：通过真实HTTP端口测量短链接创建和重定向的吞吐量与p99延迟，并校验并发正确性
+ * 线程数和每线程请求数可通过 -Dload.threads / -Dload.ops 调整
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ShortUrlLoadTests extends OfflineTestSupport {
+
+    private static final int THREADS = Integer.getInteger("load.threads", 16);
+    private static final int OPS_PER_THREAD = Integer.getInteger("load.ops", 200);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ShortUrlService shortUrlService;
+
+    @Autowired
+    private ShortUrlMapper shortUrlMapper;
+
+    @Autowired
+    private VisitCounter visitCounter;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+
+    @Test
+    void shortenUnderConcurrencyProducesUniqueCodes() throws Exception {
+        Set<String> codes = ConcurrentHashMap.newKeySet();
+        AtomicLong responses = new AtomicLong();
+
+        LoadRunner.run("shorten", THREADS, OPS_PER_THREAD, (thread, i) -> {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/api/shorten"))
+                    .header("Content-Type", "text/plain")
+                    .POST(HttpRequest.BodyPublishers.ofString("https://www.example.com/load/" + thread + "/" + i))
+                    .build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode(), response.body());
+            String shortUrl = response.body();
+            codes.add(shortUrl.substring(shortUrl.lastIndexOf('/') + 1));
+            responses.incrementAndGet();
+        });
+
+        int total = THREADS * OPS_PER_THREAD;
+        assertEquals(total, responses.get());
+        assertEquals(total, codes.size(), "生成了重复的短码");
+        assertEquals(total, countRows(new ArrayList<>(codes)));
+    }
+
+    @Test
+    void redirectUnderConcurrencyCountsEveryVisit() throws Exception {
+        List<String> codes = new ArrayList<>();
+        Map<String, String> longUrls = new ConcurrentHashMap<>();
+        Map<String, AtomicLong> expectedVisits = new ConcurrentHashMap<>();
+        for (int i = 0; i < 50; i++) {
+            String longUrl = "https://www.example.com/redirect/" + i;
+            String shortUrl = shortUrlService.createShortUrl(longUrl);
+            String code = shortUrl.substring(shortUrl.lastIndexOf('/') + 1);
+            codes.add(code);
+            longUrls.put(code, longUrl);
+            expectedVisits.put(code, new AtomicLong());
+        }
+
+        LoadRunner.run("redirect", THREADS, OPS_PER_THREAD, (thread, i) -> {
+            String code = codes.get((thread * 31 + i) % codes.size());
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/" + code)).GET().build();
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            assertEquals(302, response.statusCode());
+            assertEquals(longUrls.get(code), response.headers().firstValue("Location").orElse(null));
+            expectedVisits.get(code).incrementAndGet();
+        });
+
+        // 降级期间本地累积的访问次数先补写到数据库
+        visitCounter.flushBuffered();
+        for (String code : codes) {
+            ShortUrl row = shortUrlMapper.selectOne(new QueryWrapper<ShortUrl>().eq("short_code", code));
+            assertEquals(expectedVisits.get(code).get(), row.getVisitCount(), "短码 " + code + " 的访问次数不准确");
+        }
+    }
+
+    private long countRows(List<String> codes) {
+        long count = 0;
+        for (int from = 0; from < codes.size(); from += 500) {
+            List<String> chunk = codes.subList(from, Math.min(from + 500, codes.size()));
+            count += shortUrlMapper.selectCount(new QueryWrapper<ShortUrl>().in("short_code", chunk));
+        }
+        return count;
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.shorturl.service.impl;
+
+import com.example.shorturl.mapper.ShortUrlArchiveMapper;
+import com.example.shorturl.mapper.ShortUrlMapper;
+import com.example.shorturl.model.ShortUrl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 归档流程测试：热表和归档表使用内存列表模拟，验证分批迁移、删除和缓存清理
+ */
+class ArchiveServiceImplTests {
+
+    private final List<ShortUrl> hot = new ArrayList<>();
+    private final List<ShortUrl> archive = new ArrayList<>();
+
+    private ShortUrlArchiveMapper archiveMapper;
+    private ShortUrlMapper shortUrlMapper;
+    private RedisTemplate<String, String> redisTemplate;
+    private PlatformTransactionManager transactionManager;
+    private ArchiveServiceImpl service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        archiveMapper = mock(ShortUrlArchiveMapper.class);
+        shortUrlMapper = mock(ShortUrlMapper.class);
+        redisTemplate = mock(RedisTemplate.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+
+        when(archiveMapper.selectExpiredBatch(any(), anyInt())).thenAnswer(invocation -> {
+            LocalDateTime now = invocation.getArgument(0);
+            int limit = invocation.getArgument(1);
+            return hot.stream().filter(row -> row.getExpireAt().isBefore(now)).limit(limit).toList();
+        });
+        when(archiveMapper.selectPartitionBatch(eq("p20240101"), anyLong(), anyInt())).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(1);
+            int limit = invocation.getArgument(2);
+            return hot.stream().filter(row -> row.getId() > afterId).limit(limit).toList();
+        });
+        when(archiveMapper.insertBatch(anyList(), any())).thenAnswer(invocation -> {
+            List<ShortUrl> rows = invocation.getArgument(0);
+            archive.addAll(rows);
+            return rows.size();
+        });
+        when(archiveMapper.upsertBatch(anyList(), any())).thenAnswer(invocation -> {
+            List<ShortUrl> rows = invocation.getArgument(0);
+            archive.removeIf(archived -> rows.stream().anyMatch(row -> row.getId().equals(archived.getId())));
+            archive.addAll(rows);
+            return rows.size();
+        });
+        when(shortUrlMapper.deleteByIds(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            int before = hot.size();
+            hot.removeIf(row -> ids.contains(row.getId()));
+            return before - hot.size();
+        });
+
+        service = new ArchiveServiceImpl();
+        ReflectionTestUtils.setField(service, "archiveMapper", archiveMapper);
+        ReflectionTestUtils.setField(service, "shortUrlMapper", shortUrlMapper);
+        ReflectionTestUtils.setField(service, "redisTemplate", redisTemplate);
+        ReflectionTestUtils.setField(service, "transactionTemplate",
+                new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "batchSize", 4);
+    }
+
+    @Test
+    void expiredRowsMoveToArchiveInBatchesWithVisitCounts() {
+        LocalDateTime now = LocalDateTime.now();
+        LongStream.rangeClosed(1, 10).forEach(id -> hot.add(row(id, now.minusDays(1), id * 10)));
+        hot.add(row(11, now.plusDays(1), 5));
+
+        long archived = service.archiveExpired(now, Long.MAX_VALUE);
+
+        assertEquals(10, archived);
+        assertEquals(List.of(11L), hot.stream().map(ShortUrl::getId).toList());
+        assertEquals(10, archive.size());
+        assertEquals(30L, archive.get(2).getVisitCount());
+        // 10行分3批：4 + 4 + 2
+        verify(archiveMapper, times(3)).insertBatch(anyList(), eq(now));
+        verify(redisTemplate, times(3)).delete(anyCollection());
+    }
+
+    @Test
+    void archiveStopsAtRowLimitAndLeavesRestForNextRun() {
+        LocalDateTime now = LocalDateTime.now();
+        LongStream.rangeClosed(1, 10).forEach(id -> hot.add(row(id, now.minusDays(1), 0)));
+
+        assertEquals(6, service.archiveExpired(now, 6));
+        assertEquals(4, hot.size());
+
+        assertEquals(4, service.archiveExpired(now, 6));
+        assertEquals(0, hot.size());
+    }
+
+    @Test
+    void shortArchiveWriteRollsBackWithoutDeletingHotRows() {
+        LocalDateTime now = LocalDateTime.now();
+        LongStream.rangeClosed(1, 3).forEach(id -> hot.add(row(id, now.minusDays(1), 0)));
+        when(archiveMapper.insertBatch(anyList(), any())).thenAnswer(invocation -> {
+            List<ShortUrl> rows = invocation.getArgument(0);
+            return rows.size() - 1;
+        });
+
+        assertThrows(IllegalStateException.class, () -> service.archiveExpired(now, Long.MAX_VALUE));
+
+        assertEquals(3, hot.size());
+        verify(shortUrlMapper, never()).deleteByIds(anyCollection());
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void rerunningAPartitionArchiveOverwritesInsteadOfDuplicating() {
+        LocalDateTime expired = LocalDateTime.now().minusDays(3);
+        LongStream.rangeClosed(1, 5).forEach(id -> hot.add(row(id, expired, id)));
+
+        service.archivePartition("p20240101");
+        service.archivePartition("p20240101");
+
+        assertEquals(5, archive.size());
+    }
+
+    @Test
+    void partitionIsArchivedByKeysetWithoutDeletingRows() {
+        LocalDateTime expired = LocalDateTime.now().minusDays(3);
+        LongStream.rangeClosed(1, 9).forEach(id -> hot.add(row(id, expired, id)));
+
+        assertEquals(9, service.archivePartition("p20240101"));
+
+        assertEquals(9, archive.size());
+        assertEquals(9, hot.size());
+        verify(archiveMapper).selectPartitionBatch("p20240101", 0L, 4);
+        verify(archiveMapper).selectPartitionBatch("p20240101", 4L, 4);
+        verify(archiveMapper).selectPartitionBatch("p20240101", 8L, 4);
+        verify(shortUrlMapper, never()).deleteByIds(anyCollection());
+    }
+
+    private static ShortUrl row(long id, LocalDateTime expireAt, long visits) {
+        return new ShortUrl(id, "code" + id, "https://www.example.com/" + id,
+                expireAt.minusDays(7), visits, expireAt);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.shorturl.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.example.shorturl.mapper.ShortUrlArchiveMapper;
+import com.example.shorturl.mapper.ShortUrlMapper;
+import com.example.shorturl.model.ShortUrl;
+import com.example.shorturl.model.ShortUrlArchive;
+import com.example.shorturl.service.ArchiveService;
+import com.example.shorturl.support.OfflineTestSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 归档集成测试：在H2上执行真实的归档SQL，再通过Mapper和归档查询接口读回
+ */
+@AutoConfigureMockMvc
+class ArchiveServiceIntegrationTests extends OfflineTestSupport {
+
+    // 长于早期归档表 VARCHAR(10) 的别名，验证归档时不会被截断
+    private static final String EXPIRED_ALIAS = "archived-spring-campaign";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Autowired
+    private ShortUrlMapper shortUrlMapper;
+
+    @Autowired
+    private ShortUrlArchiveMapper archiveMapper;
+
+    @Test
+    void expiredRowsAreArchivedAndServedByTheAdminEndpoint() throws Exception {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        ShortUrl expired = insert(EXPIRED_ALIAS, "https://www.example.com/expired", now.minusDays(1), 42);
+        insert("arclive1", "https://www.example.com/live", now.plusDays(1), 7);
+
+        assertTrue(archiveService.archiveExpired(now, Long.MAX_VALUE) >= 1);
+
+        assertEquals(0, shortUrlMapper.selectCount(new QueryWrapper<ShortUrl>().eq("short_code", EXPIRED_ALIAS)));
+        assertEquals(1, shortUrlMapper.selectCount(new QueryWrapper<ShortUrl>().eq("short_code", "arclive1")));
+        assertEquals(0, archiveMapper.selectCount(new QueryWrapper<ShortUrlArchive>().eq("short_code", "arclive1")));
+
+        List<ShortUrlArchive> records = archiveService.lookup(EXPIRED_ALIAS);
+        assertEquals(1, records.size());
+        ShortUrlArchive record = records.get(0);
+        assertEquals(expired.getId(), record.getId());
+        assertEquals("https://www.example.com/expired", record.getLongUrl());
+        assertEquals(42L, record.getVisitCount());
+        assertEquals(now.minusDays(1), record.getExpireAt());
+        assertEquals(now, record.getArchivedAt());
+
+        mockMvc.perform(get("/api/admin/archive/" + EXPIRED_ALIAS))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.records.length()").value(1))
+                .andExpect(jsonPath("$.records[0].shortCode").value(EXPIRED_ALIAS))
+                .andExpect(jsonPath("$.records[0].longUrl").value("https://www.example.com/expired"))
+                .andExpect(jsonPath("$.records[0].visitCount").value(42));
+        mockMvc.perform(get("/api/admin/archive/arclive1"))
+                .andExpect(status().isNotFound());
+    }
+
+    private ShortUrl insert(String shortCode, String longUrl, LocalDateTime expireAt, long visits) {
+        ShortUrl shortUrl = new ShortUrl();
+        shortUrl.setShortCode(shortCode);
+        shortUrl.setLongUrl(longUrl);
+        shortUrl.setCreatedAt(expireAt.minusDays(7));
+        shortUrl.setVisitCount(visits);
+        shortUrl.setExpireAt(expireAt);
+        shortUrlMapper.insert(shortUrl);
+        return shortUrl;
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.shorturl.service.impl;
+
+import com.example.shorturl.mapper.ShortUrlMapper;
+import com.example.shorturl.model.ShortUrl;
+import com.example.shorturl.util.CacheTtlPolicy;
+import com.example.shorturl.util.CreateJournal;
+import com.example.shorturl.util.DependencyUnavailableException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 异步创建写入器的崩溃恢复与日志超时测试，数据库、Redis和卡住的创建日志使用Mockito替身
+ */
+class AsyncCreateWriterTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void unflushedEntriesAreReplayedIntoDatabaseOnStartup() throws Exception {
+        Path file = dir.resolve("create.journal");
+        CreateJournal crashed = new CreateJournal(file, 16);
+        crashed.append(shortUrl("aaa111")).get(1, TimeUnit.SECONDS);
+        crashed.append(shortUrl("bbb222")).get(1, TimeUnit.SECONDS);
+
+        ShortUrlMapper mapper = mock(ShortUrlMapper.class);
+        List<String> inserted = new ArrayList<>();
+        doAnswer(invocation -> {
+            List<ShortUrl> rows = invocation.getArgument(0);
+            rows.forEach(row -> inserted.add(row.getShortCode()));
+            return null;
+        }).when(mapper).insertBatch(anyList());
+
+        CreateJournal journal = new CreateJournal(file, 16);
+        AsyncCreateWriter writer = newWriter(mapper, journal);
+        writer.start();
+
+        verify(mapper, timeout(2000).atLeastOnce()).insertBatch(anyList());
+        writer.stop();
+
+        assertEquals(List.of("aaa111", "bbb222"), inserted);
+        assertEquals(0, Files.size(file));
+    }
+
+    @Test
+    void entriesSurviveDatabaseOutageUntilRestart() throws Exception {
+        Path file = dir.resolve("create.journal");
+        ShortUrlMapper mapper = mock(ShortUrlMapper.class);
+        doThrow(new RuntimeException("MySQL不可用")).when(mapper).insertBatch(anyList());
+
+        AsyncCreateWriter writer = newWriter(mapper, new CreateJournal(file, 16));
+        writer.start();
+        writer.submit(shortUrl("ccc333"));
+
+        // 写入前的短码照常可以重定向
+        assertEquals("https://example.com/ccc333", writer.resolvePending("ccc333"));
+        verify(mapper, timeout(2000).atLeastOnce()).insertBatch(anyList());
+        writer.stop();
+
+        List<ShortUrl> replayed = new CreateJournal(file, 16).replay();
+        assertEquals(List.of("ccc333"), replayed.stream().map(ShortUrl::getShortCode).toList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void visitsDuringFlushAreCountedExactlyOnce() throws Exception {
+        ShortUrlMapper mapper = mock(ShortUrlMapper.class);
+        AsyncCreateWriter writer = newWriter(mapper, new CreateJournal(dir.resolve("create.journal"), 16));
+        ShortUrl shortUrl = shortUrl("ddd444");
+        AsyncCreateWriter.PendingEntry entry = new AsyncCreateWriter.PendingEntry(shortUrl);
+        ((Map<String, AsyncCreateWriter.PendingEntry>) ReflectionTestUtils.getField(writer, "pending"))
+                .put("ddd444", entry);
+
+        writer.resolvePending("ddd444");
+        writer.resolvePending("ddd444");
+        doAnswer(invocation -> {
+            // 插入过程中又有一次访问
+            writer.resolvePending("ddd444");
+            return null;
+        }).when(mapper).insertBatch(anyList());
+
+        assertTrue(writer.flush(List.of(entry)));
+
+        ArgumentCaptor<List<ShortUrl>> rows = ArgumentCaptor.forClass(List.class);
+        verify(mapper).insertBatch(rows.capture());
+        assertEquals(2L, rows.getValue().get(0).getVisitCount());
+        verify(mapper).addVisitCount("ddd444", 1L);
+        assertNull(writer.resolvePending("ddd444"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void conflictingRecordsAreRejectedInsteadOfMarkedCommitted() throws Exception {
+        Path file = dir.resolve("create.journal");
+        CreateJournal journal = new CreateJournal(file, 16);
+        List<AsyncCreateWriter.PendingEntry> batch = new ArrayList<>();
+        for (String code : List.of("fresh1", "mine22", "taken3")) {
+            ShortUrl shortUrl = shortUrl(code);
+            journal.append(shortUrl).get(1, TimeUnit.SECONDS);
+            batch.add(new AsyncCreateWriter.PendingEntry(shortUrl));
+        }
+
+        ShortUrlMapper mapper = mock(ShortUrlMapper.class);
+        doThrow(new DuplicateKeyException("Duplicate entry")).when(mapper).insertBatch(anyList());
+        when(mapper.insert(any(ShortUrl.class))).thenAnswer(invocation -> {
+            ShortUrl row = invocation.getArgument(0);
+            if (!row.getShortCode().equals("fresh1")) {
+                throw new DuplicateKeyException("Duplicate entry");
+            }
+            return 1;
+        });
+        // mine22 是崩溃前自己写入的同一记录，taken3 已被其他链接占用
+        ShortUrl other = shortUrl("taken3");
+        other.setLongUrl("https://example.com/someone-else");
+        when(mapper.selectOne(any())).thenReturn(shortUrl("mine22"), other);
+
+        AsyncCreateWriter writer = newWriter(mapper, journal);
+        assertTrue(writer.flush(batch));
+        writer.stop();
+
+        assertTrue(new CreateJournal(file, 16).replay().isEmpty());
+        List<String> rejected = Files.readAllLines(dir.resolve("create.journal.rejected"));
+        assertEquals(1, rejected.size());
+        assertTrue(rejected.get(0).startsWith("A|taken3|"), rejected.get(0));
+        RedisTemplate<String, String> redisTemplate =
+                (RedisTemplate<String, String>) ReflectionTestUtils.getField(writer, "redisTemplate");
+        verify(redisTemplate).delete("short:taken3");
+        verify(redisTemplate, never()).delete("short:mine22");
+    }
+
+    @Test
+    void recordsThatMissTheJournalTimeoutAreStillWrittenOnceDurable() throws Exception {
+        // 刷盘线程卡住：append 返回的Future迟迟不完成
+        CreateJournal journal = mock(CreateJournal.class);
+        CompletableFuture<Void> durable = new CompletableFuture<>();
+        when(journal.append(any())).thenReturn(durable);
+        ShortUrlMapper mapper = mock(ShortUrlMapper.class);
+
+        AsyncCreateWriter writer = newWriter(mapper, journal);
+        ReflectionTestUtils.setField(writer, "journalTimeoutMs", 50L);
+        writer.start();
+
+        assertThrows(DependencyUnavailableException.class, () -> writer.submit(shortUrl("slow11")));
+        assertTrue(writer.isPending("slow11"), "结果未定的短码应继续占用");
+        verify(mapper, never()).insertBatch(anyList());
+
+        // 记录最终落盘：写入数据库并追加提交标记，日志可以截断，重启也不会再重放
+        durable.complete(null);
+        verify(mapper, timeout(2000)).insertBatch(anyList());
+        verify(journal, timeout(2000)).markCommitted(List.of("slow11"));
+        writer.stop();
+    }
+
+    @Test
+    void recordsThatFailAfterTheJournalTimeoutAreDropped() throws Exception {
+        CreateJournal journal = mock(CreateJournal.class);
+        CompletableFuture<Void> durable = new CompletableFuture<>();
+        when(journal.append(any())).thenReturn(durable);
+        ShortUrlMapper mapper = mock(ShortUrlMapper.class);
+
+        AsyncCreateWriter writer = newWriter(mapper, journal);
+        ReflectionTestUtils.setField(writer, "journalTimeoutMs", 50L);
+        writer.start();
+
+        assertThrows(DependencyUnavailableException.class, () -> writer.submit(shortUrl("slow22")));
+        durable.completeExceptionally(new IOException("磁盘已满"));
+
+        assertFalse(writer.isPending("slow22"));
+        writer.stop();
+        verify(mapper, never()).insertBatch(anyList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static AsyncCreateWriter newWriter(ShortUrlMapper mapper, CreateJournal journal) {
+        RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        CacheTtlPolicy cacheTtlPolicy = mock(CacheTtlPolicy.class);
+        when(cacheTtlPolicy.ttlOnWrite(anyString(), any())).thenReturn(600L);
+
+        AsyncCreateWriter writer = new AsyncCreateWriter();
+        ReflectionTestUtils.setField(writer, "shortUrlMapper", mapper);
+        ReflectionTestUtils.setField(writer, "redisTemplate", redisTemplate);
+        ReflectionTestUtils.setField(writer, "cacheTtlPolicy", cacheTtlPolicy);
+        ReflectionTestUtils.setField(writer, "createJournal", journal);
+        ReflectionTestUtils.setField(writer, "batchSize", 100);
+        ReflectionTestUtils.setField(writer, "journalTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(writer, "retryBackoffMs", 50L);
+        return writer;
+    }
+
+    private static ShortUrl shortUrl(String code) {
+        ShortUrl shortUrl = new ShortUrl();
+        shortUrl.setShortCode(code);
+        shortUrl.setLongUrl("https://example.com/" + code);
+        shortUrl.setCreatedAt(LocalDateTime.now().withNano(0));
+        shortUrl.setVisitCount(0L);
+        shortUrl.setExpireAt(LocalDateTime.now().plusDays(7).withNano(0));
+        return shortUrl;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.shorturl.service.impl;
+
+import com.example.shorturl.mapper.ShortUrlMapper;
+import com.example.shorturl.model.ResolveResult;
+import com.example.shorturl.model.ShortUrl;
+import com.example.shorturl.util.Bulkhead;
+import com.example.shorturl.util.CacheTtlPolicy;
+import com.example.shorturl.util.CircuitBreaker;
+import com.example.shorturl.util.StaleUrlCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 批量解析的服务层测试：尚未写入数据库的异步短码，以及MySQL不区分大小写匹配到的记录
+ */
+class ResolveBatchServiceTests {
+
+    private static final String URL = "https://www.example.com/batch";
+
+    private ShortUrlMapper mapper;
+    private VisitCounter visitCounter;
+    private AsyncCreateWriter asyncCreateWriter;
+    private ShortUrlServiceImpl service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        mapper = mock(ShortUrlMapper.class);
+        RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        // 缓存全部未命中（例如创建时写缓存失败或已被淘汰）
+        when(valueOperations.multiGet(anyCollection())).thenAnswer(invocation ->
+                new ArrayList<String>(Collections.nCopies(((List<String>) invocation.getArgument(0)).size(), null)));
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CacheTtlPolicy cacheTtlPolicy = new CacheTtlPolicy(meterRegistry);
+        ReflectionTestUtils.setField(cacheTtlPolicy, "initialTtlSeconds", 600L);
+        ReflectionTestUtils.setField(cacheTtlPolicy, "maxTtlSeconds", 86400L);
+        ReflectionTestUtils.setField(cacheTtlPolicy, "earlyRefreshBeta", 1.0);
+        ReflectionTestUtils.setField(cacheTtlPolicy, "jitterRatio", 0.0);
+        ReflectionTestUtils.setField(cacheTtlPolicy, "maxTrackedKeys", 1000);
+
+        CircuitBreaker mysqlCircuitBreaker = new CircuitBreaker("mysql", 2, 60_000, 1000);
+        visitCounter = new VisitCounter(meterRegistry);
+        ReflectionTestUtils.setField(visitCounter, "shortUrlMapper", mapper);
+        ReflectionTestUtils.setField(visitCounter, "mysqlCircuitBreaker", mysqlCircuitBreaker);
+        ReflectionTestUtils.setField(visitCounter, "maxBufferedKeys", 1000);
+
+        asyncCreateWriter = mock(AsyncCreateWriter.class);
+
+        service = new ShortUrlServiceImpl();
+        ReflectionTestUtils.setField(service, "shortUrlMapper", mapper);
+        ReflectionTestUtils.setField(service, "redisTemplate", redisTemplate);
+        ReflectionTestUtils.setField(service, "cacheTtlPolicy", cacheTtlPolicy);
+        ReflectionTestUtils.setField(service, "visitCounter", visitCounter);
+        ReflectionTestUtils.setField(service, "staleUrlCache", new StaleUrlCache(1000, 600));
+        ReflectionTestUtils.setField(service, "redisCircuitBreaker", new CircuitBreaker("redis", 2, 60_000, 1000));
+        ReflectionTestUtils.setField(service, "mysqlCircuitBreaker", mysqlCircuitBreaker);
+        ReflectionTestUtils.setField(service, "redirectBulkhead", new Bulkhead("redirect", 4, 0));
+        ReflectionTestUtils.setField(service, "asyncCreateWriter", asyncCreateWriter);
+    }
+
+    @Test
+    void pendingAsyncCodesResolveAndCountOnTheirPendingRecord() {
+        when(asyncCreateWriter.resolvePending(eq("pend01"), eq(true))).thenReturn(URL);
+
+        List<ResolveResult> results = service.resolveBatch(List.of("pend01", "pend01"), true);
+
+        assertEquals(List.of(new ResolveResult("pend01", URL, ResolveResult.Status.OK)), results);
+        verify(asyncCreateWriter).resolvePending("pend01", true);
+        // 访问次数记在待写入记录上，不进入针对已有行的批量UPDATE
+        assertEquals(0, visitCounter.pendingVisits("pend01"));
+        verify(mapper, never()).selectByShortCodes(anyCollection());
+    }
+
+    @Test
+    void previewsDoNotCountVisitsOnPendingRecords() {
+        when(asyncCreateWriter.resolvePending(eq("pend02"), eq(false))).thenReturn(URL);
+
+        List<ResolveResult> results = service.resolveBatch(List.of("pend02"), false);
+
+        assertEquals(ResolveResult.Status.OK, results.get(0).getStatus());
+        verify(asyncCreateWriter, never()).resolvePending(anyString(), eq(true));
+    }
+
+    @Test
+    void rowsMatchedCaseInsensitivelyMapBackToTheRequestedCodes() {
+        ShortUrl row = new ShortUrl(1L, "AbC123", URL, LocalDateTime.now().minusDays(1), 0L, LocalDateTime.now().plusDays(1));
+        when(mapper.selectByShortCodes(anyList())).thenReturn(List.of(row));
+
+        List<ResolveResult> results = service.resolveBatch(List.of("abc123", "ABC123", "zzz999"), true);
+
+        assertEquals(List.of(
+                new ResolveResult("abc123", URL, ResolveResult.Status.OK),
+                new ResolveResult("ABC123", URL, ResolveResult.Status.OK),
+                new ResolveResult("zzz999", null, ResolveResult.Status.NOT_FOUND)), results);
+        // 两种拼写是同一条记录，按存储的拼写只计一次
+        assertEquals(1, visitCounter.pendingVisits("AbC123"));
+        assertEquals(0, visitCounter.pendingVisits("abc123"));
+    }
+}
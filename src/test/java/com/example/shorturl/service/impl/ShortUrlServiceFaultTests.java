@@ -0,0 +1,219 @@
+package com.example.shorturl.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.example.shorturl.mapper.ShortUrlArchiveMapper;
+import com.example.shorturl.mapper.ShortUrlMapper;
+import com.example.shorturl.model.ShortUrl;
+import com.example.shorturl.util.Bulkhead;
+import com.example.shorturl.util.CacheTtlPolicy;
+import com.example.shorturl.util.CircuitBreaker;
+import com.example.shorturl.util.DependencyUnavailableException;
+import com.example.shorturl.util.StaleUrlCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 读路径故障注入测试
+ * Redis和MySQL使用Mockito替身，通过抛出异常或人为延迟模拟依赖故障；
+ * 也验证管理隔离舱被慢查询占满时重定向不受影响
+ */
+class ShortUrlServiceFaultTests {
+
+    private static final String CODE = "abc123";
+    private static final String URL = "https://www.example.com";
+
+    private ShortUrlMapper mapper;
+    private ValueOperations<String, String> valueOperations;
+    private VisitCounter visitCounter;
+    private CircuitBreaker mysqlCircuitBreaker;
+    private ShortUrlServiceImpl service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        mapper = mock(ShortUrlMapper.class);
+        RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CacheTtlPolicy cacheTtlPolicy = new CacheTtlPolicy(meterRegistry);
+        ReflectionTestUtils.setField(cacheTtlPolicy, "initialTtlSeconds", 600L);
+        ReflectionTestUtils.setField(cacheTtlPolicy, "maxTtlSeconds", 86400L);
+        ReflectionTestUtils.setField(cacheTtlPolicy, "earlyRefreshBeta", 1.0);
+        ReflectionTestUtils.setField(cacheTtlPolicy, "jitterRatio", 0.1);
+        ReflectionTestUtils.setField(cacheTtlPolicy, "maxTrackedKeys", 1000);
+
+        CircuitBreaker redisCircuitBreaker = new CircuitBreaker("redis", 2, 60_000, 20);
+        mysqlCircuitBreaker = new CircuitBreaker("mysql", 2, 60_000, 1000);
+        Bulkhead redirectBulkhead = new Bulkhead("redirect", 4, 0);
+
+        visitCounter = new VisitCounter(meterRegistry);
+        ReflectionTestUtils.setField(visitCounter, "shortUrlMapper", mapper);
+        ReflectionTestUtils.setField(visitCounter, "mysqlCircuitBreaker", mysqlCircuitBreaker);
+        ReflectionTestUtils.setField(visitCounter, "maxBufferedKeys", 1000);
+
+        service = new ShortUrlServiceImpl();
+        ReflectionTestUtils.setField(service, "shortUrlMapper", mapper);
+        ReflectionTestUtils.setField(service, "redisTemplate", redisTemplate);
+        ReflectionTestUtils.setField(service, "cacheTtlPolicy", cacheTtlPolicy);
+        ReflectionTestUtils.setField(service, "visitCounter", visitCounter);
+        ReflectionTestUtils.setField(service, "staleUrlCache", new StaleUrlCache(1000, 600));
+        ReflectionTestUtils.setField(service, "redisCircuitBreaker", redisCircuitBreaker);
+        ReflectionTestUtils.setField(service, "mysqlCircuitBreaker", mysqlCircuitBreaker);
+        ReflectionTestUtils.setField(service, "redirectBulkhead", redirectBulkhead);
+    }
+
+    @Test
+    void cachedRedirectsNeverTouchMysql() {
+        when(valueOperations.get("short:" + CODE)).thenReturn(URL);
+        when(mapper.selectByShortCode(anyString())).thenThrow(new RuntimeException("MySQL不可用"));
+        doThrow(new RuntimeException("MySQL不可用")).when(mapper).addVisitCounts(anyMap());
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(URL, service.getLongUrl(CODE));
+        }
+        visitCounter.flushBuffered();
+
+        // 缓存命中不回源，访问次数在本地累积，写入失败后保留
+        verify(mapper, never()).selectByShortCode(anyString());
+        assertEquals(10, visitCounter.pendingVisits(CODE));
+    }
+
+    @Test
+    void staleDataIsServedWhenRedisAndMysqlAreBothDown() {
+        when(mapper.selectByShortCode(anyString())).thenReturn(row());
+        assertEquals(URL, service.getLongUrl(CODE));
+
+        when(valueOperations.get(anyString())).thenThrow(new RedisConnectionFailureException("Redis不可用"));
+        when(mapper.selectByShortCode(anyString())).thenThrow(new RuntimeException("MySQL不可用"));
+
+        assertEquals(URL, service.getLongUrl(CODE));
+        assertEquals(URL, service.getLongUrl(CODE));
+    }
+
+    @Test
+    void unknownCodeFailsFastWhenEverythingIsDown() {
+        when(valueOperations.get(anyString())).thenThrow(new RedisConnectionFailureException("Redis不可用"));
+        when(mapper.selectByShortCode(anyString())).thenThrow(new RuntimeException("MySQL不可用"));
+
+        assertThrows(DependencyUnavailableException.class, () -> service.getLongUrl("zzz999"));
+    }
+
+    @Test
+    void slowRedisTripsBreakerAndFallsBackToMysql() {
+        when(valueOperations.get(anyString())).thenAnswer(invocation -> {
+            Thread.sleep(30); // 超过20ms的延迟预算
+            return URL;
+        });
+        when(mapper.selectByShortCode(anyString())).thenReturn(row());
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(URL, service.getLongUrl(CODE));
+        }
+
+        verify(valueOperations, atMost(2)).get(anyString());
+    }
+
+    @Test
+    void bufferedVisitsAreFlushedAfterRecovery() {
+        when(valueOperations.get("short:" + CODE)).thenReturn(URL);
+        doThrow(new RuntimeException("MySQL不可用")).when(mapper).addVisitCounts(anyMap());
+
+        for (int i = 0; i < 3; i++) {
+            service.getLongUrl(CODE);
+        }
+        visitCounter.flushBuffered();
+        assertEquals(3, visitCounter.pendingVisits(CODE));
+
+        // MySQL恢复
+        reset(mapper);
+        visitCounter.flushBuffered();
+
+        verify(mapper).addVisitCounts(Map.of(CODE, 3L));
+        assertEquals(0, visitCounter.pendingVisits(CODE));
+        assertEquals(CircuitBreaker.State.CLOSED, mysqlCircuitBreaker.getState());
+    }
+
+    @Test
+    void saturatedAdminBulkheadFailsFastWithoutSlowingRedirects() throws Exception {
+        // 归档查询卡在变慢的数据库上，占满管理隔离舱的全部许可
+        Bulkhead adminBulkhead = new Bulkhead("admin", 2, 50);
+        ShortUrlArchiveMapper archiveMapper = mock(ShortUrlArchiveMapper.class);
+        CountDownLatch entered = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        when(archiveMapper.selectList(any(QueryWrapper.class))).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await();
+            return List.of();
+        });
+        ArchiveServiceImpl archiveService = new ArchiveServiceImpl();
+        ReflectionTestUtils.setField(archiveService, "archiveMapper", archiveMapper);
+        ReflectionTestUtils.setField(archiveService, "lookupLimit", 20);
+
+        when(valueOperations.get("short:" + CODE)).thenReturn(URL);
+        when(mapper.selectByShortCode("db0001")).thenReturn(
+                new ShortUrl(2L, "db0001", URL, LocalDateTime.now(), 0L, LocalDateTime.now().plusDays(7)));
+
+        ExecutorService adminThreads = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 2; i++) {
+                adminThreads.submit(() -> adminBulkhead.call(() -> archiveService.lookup("old001")));
+            }
+            assertTrue(entered.await(2, TimeUnit.SECONDS));
+
+            // 多余的管理调用在等待上限内失败，不排队
+            long start = System.nanoTime();
+            assertThrows(DependencyUnavailableException.class,
+                    () -> adminBulkhead.call(() -> archiveService.lookup("old001")));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 500);
+
+            // 重定向（缓存命中和回源）照常在预算内完成，重定向隔离舱的许可不受影响
+            for (String code : List.of(CODE, "db0001")) {
+                long redirectStart = System.nanoTime();
+                assertEquals(URL, service.getLongUrl(code));
+                assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - redirectStart) < 200,
+                        "重定向 " + code + " 超出延迟预算");
+            }
+            Bulkhead redirectBulkhead = (Bulkhead) ReflectionTestUtils.getField(service, "redirectBulkhead");
+            assertEquals(4, redirectBulkhead.getAvailablePermits());
+            assertEquals(0, adminBulkhead.getAvailablePermits());
+        } finally {
+            release.countDown();
+            adminThreads.shutdown();
+        }
+        assertTrue(adminThreads.awaitTermination(2, TimeUnit.SECONDS));
+        assertEquals(2, adminBulkhead.getAvailablePermits());
+    }
+
+    private static ShortUrl row() {
+        return new ShortUrl(1L, CODE, URL, LocalDateTime.now(), 0L, LocalDateTime.now().plusDays(7));
+    }
+}
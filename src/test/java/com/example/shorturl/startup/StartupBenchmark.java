@@ -0,0 +1,161 @@
+package com.example.shorturl.startup;
+
+import com.example.shorturl.support.EmbeddedRedisServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 启动基准：从启动JVM进程到第一次成功重定向（返回302）的耗时
+ * 依次对比 普通JVM / Spring AOT / Spring AOT + AppCDS 三种启动方式，每种运行多次取中位数。
+ * 数据库使用H2（MySQL兼容模式），Redis使用进程内协议替身，无需外部依赖。
+ * 由 fast-startup 构建配置在 verify 阶段执行，参数见 pom.xml
+ * CDS归档只对与训练时相同的类路径生效，因此AOT+CDS使用的归档由本基准以与测量完全相同的命令训练生成
+ * （训练进程同样完成一次重定向后退出），而不是复用以 -jar 方式训练的生产归档
+ *
+ * 用法：StartupBenchmark 应用jar H2驱动jar 基准CDS归档输出路径 建表脚本 数据脚本 日志目录 [每种方式运行次数]
+ */
+public final class StartupBenchmark {
+
+    private static final String MAIN_CLASS = "com.example.shorturl.ShortUrlSystemApplication";
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(120);
+    private static final Duration EXIT_TIMEOUT = Duration.ofSeconds(60); // 训练进程退出时需要写出CDS归档
+
+    private final Path appJar;
+    private final Path h2Jar;
+    private final Path cdsArchive;
+    private final Path schema;
+    private final Path data;
+    private final Path logDir;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .connectTimeout(Duration.ofMillis(200))
+            .build();
+
+    private StartupBenchmark(String[] args) {
+        this.appJar = Path.of(args[0]);
+        this.h2Jar = Path.of(args[1]);
+        this.cdsArchive = Path.of(args[2]);
+        this.schema = Path.of(args[3]);
+        this.data = Path.of(args[4]);
+        this.logDir = Path.of(args[5]);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 6) {
+            throw new IllegalArgumentException("用法: StartupBenchmark 应用jar H2驱动jar 基准CDS归档输出路径 建表脚本 数据脚本 日志目录 [运行次数]");
+        }
+        int runs = args.length > 6 ? Integer.parseInt(args[6]) : 3;
+        StartupBenchmark benchmark = new StartupBenchmark(args);
+        Files.createDirectories(benchmark.logDir);
+
+        List<String> report = new ArrayList<>();
+        report.add(benchmark.measure("jit", List.of(), runs));
+        report.add(benchmark.measure("aot", List.of("-Dspring.aot.enabled=true"), runs));
+        benchmark.trainCdsArchive();
+        if (Files.exists(benchmark.cdsArchive)) {
+            report.add(benchmark.measure("aot+cds", List.of("-Dspring.aot.enabled=true",
+                    "-XX:SharedArchiveFile=" + benchmark.cdsArchive), runs));
+        } else {
+            report.add("aot+cds   跳过：训练运行未生成CDS归档 " + benchmark.cdsArchive);
+        }
+
+        System.out.println("==== 启动到首次成功重定向耗时（中位数） ====");
+        report.forEach(System.out::println);
+        EmbeddedRedisServer.shared().close();
+    }
+
+    private String measure(String mode, List<String> jvmFlags, int runs) throws Exception {
+        long[] millis = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            millis[i] = timeToFirstRedirect(mode + "-" + (i + 1), jvmFlags);
+        }
+        Arrays.sort(millis);
+        return String.format("%-9s %6d ms  (每次: %s)", mode, millis[runs / 2], Arrays.toString(millis));
+    }
+
+    /**
+     * 训练运行：与测量使用同一条启动命令（相同类路径、参数和AOT开关），完成首次重定向后正常退出并写出归档
+     */
+    private void trainCdsArchive() throws Exception {
+        Files.deleteIfExists(cdsArchive);
+        timeToFirstRedirect("cds-training", List.of("-Dspring.aot.enabled=true", "-XX:ArchiveClassesAtExit=" + cdsArchive));
+    }
+
+    private long timeToFirstRedirect(String name, List<String> jvmFlags) throws Exception {
+        EmbeddedRedisServer redis = EmbeddedRedisServer.shared();
+        redis.flushAll();
+        int port = freePort();
+
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmFlags);
+        // 训练与测量共用这条命令，类路径完全一致，CDS归档才会被采用
+        command.add("-cp");
+        command.add(appJar + File.pathSeparator + h2Jar);
+        command.add(MAIN_CLASS);
+        command.add("--server.port=" + port);
+        command.add("--spring.datasource.driver-class-name=org.h2.Driver");
+        command.add("--spring.datasource.url=jdbc:h2:mem:bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE");
+        command.add("--spring.datasource.username=sa");
+        command.add("--spring.datasource.password=");
+        command.add("--spring.sql.init.mode=always");
+        command.add("--spring.sql.init.schema-locations=file:" + schema.toAbsolutePath());
+        command.add("--spring.sql.init.data-locations=file:" + data.toAbsolutePath());
+        command.add("--spring.data.redis.host=" + redis.getHost());
+        command.add("--spring.data.redis.port=" + redis.getPort());
+        command.add("--short-url.access-log.enabled=false");
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/bench1"))
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(logDir.resolve(name + ".log").toFile())
+                .start();
+        try {
+            long deadline = start + STARTUP_TIMEOUT.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(name + " 启动失败，详见 " + logDir.resolve(name + ".log"));
+                }
+                try {
+                    HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() == 302) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    }
+                } catch (IOException notReady) {
+                    // 端口尚未监听
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException(name + " 在 " + STARTUP_TIMEOUT + " 内未能完成重定向");
+        } finally {
+            process.destroy();
+            if (!process.waitFor(EXIT_TIMEOUT.toSeconds(), TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
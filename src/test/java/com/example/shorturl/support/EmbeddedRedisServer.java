@@ -0,0 +1,365 @@
+package com.example.shorturl.support;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * 进程内Redis协议替身
+ * 实现RESP2协议以及应用和测试用到的命令子集（字符串、过期、批量读取、INFO等），
+ * 让测试无需外部Redis即可运行。每个连接一个线程，命令按到达顺序执行，支持pipeline
+ */
+public final class EmbeddedRedisServer implements AutoCloseable {
+
+    private static volatile EmbeddedRedisServer shared;
+
+    private final ServerSocket serverSocket;
+    private final Map<String, Entry> store = new ConcurrentHashMap<>();
+    private volatile boolean running = true;
+
+    private EmbeddedRedisServer() throws IOException {
+        this.serverSocket = new ServerSocket(0, 128, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::acceptLoop, "embedded-redis-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * 整个测试JVM共享一个实例，使不同测试类的Spring上下文可以复用
+     */
+    public static EmbeddedRedisServer shared() {
+        if (shared == null) {
+            synchronized (EmbeddedRedisServer.class) {
+                if (shared == null) {
+                    try {
+                        shared = new EmbeddedRedisServer();
+                    } catch (IOException e) {
+                        throw new IllegalStateException("无法启动嵌入式Redis替身", e);
+                    }
+                }
+            }
+        }
+        return shared;
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public String getHost() {
+        return serverSocket.getInetAddress().getHostAddress();
+    }
+
+    public void flushAll() {
+        store.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverSocket.close();
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                Thread handler = new Thread(() -> serve(socket), "embedded-redis-connection");
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                if (running) {
+                    throw new IllegalStateException("嵌入式Redis替身接受连接失败", e);
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             InputStream in = new BufferedInputStream(socket.getInputStream());
+             OutputStream out = new BufferedOutputStream(socket.getOutputStream())) {
+            while (running) {
+                List<String> command = readCommand(in);
+                if (command == null) {
+                    return;
+                }
+                boolean quit = execute(command, out);
+                // pipeline中还有未处理的命令时先不刷出，减少系统调用
+                if (quit || in.available() == 0) {
+                    out.flush();
+                }
+                if (quit) {
+                    return;
+                }
+            }
+        } catch (IOException ignored) {
+            // 客户端断开连接
+        }
+    }
+
+    private boolean execute(List<String> args, OutputStream out) throws IOException {
+        String name = args.get(0).toUpperCase(Locale.ROOT);
+        switch (name) {
+            case "PING" -> simple(out, "PONG");
+            case "SELECT", "CLIENT", "READONLY" -> simple(out, "OK");
+            case "QUIT" -> {
+                simple(out, "OK");
+                return true;
+            }
+            case "GET" -> bulk(out, value(args.get(1)));
+            case "MGET" -> {
+                array(out, args.size() - 1);
+                for (int i = 1; i < args.size(); i++) {
+                    bulk(out, value(args.get(i)));
+                }
+            }
+            case "SET" -> set(args, out);
+            case "SETEX" -> {
+                store.put(args.get(1), new Entry(args.get(3), expireAt(Long.parseLong(args.get(2)) * 1000)));
+                simple(out, "OK");
+            }
+            case "SETNX" -> integer(out, store.putIfAbsent(args.get(1), new Entry(args.get(2), 0)) == null ? 1 : 0);
+            case "DEL", "UNLINK" -> {
+                int removed = 0;
+                for (int i = 1; i < args.size(); i++) {
+                    Entry entry = store.remove(args.get(i));
+                    if (entry != null && !entry.isExpired()) {
+                        removed++;
+                    }
+                }
+                integer(out, removed);
+            }
+            case "EXISTS" -> {
+                int count = 0;
+                for (int i = 1; i < args.size(); i++) {
+                    if (value(args.get(i)) != null) {
+                        count++;
+                    }
+                }
+                integer(out, count);
+            }
+            case "EXPIRE", "PEXPIRE" -> {
+                long millis = Long.parseLong(args.get(2)) * ("EXPIRE".equals(name) ? 1000 : 1);
+                Entry updated = store.computeIfPresent(args.get(1),
+                        (key, entry) -> entry.isExpired() ? null : new Entry(entry.value, expireAt(millis)));
+                integer(out, updated != null ? 1 : 0);
+            }
+            case "TTL", "PTTL" -> {
+                Entry entry = store.get(args.get(1));
+                if (entry == null || entry.isExpired()) {
+                    integer(out, -2);
+                } else if (entry.expireAtMillis == 0) {
+                    integer(out, -1);
+                } else {
+                    long remaining = entry.expireAtMillis - System.currentTimeMillis();
+                    integer(out, "TTL".equals(name) ? (remaining + 999) / 1000 : remaining);
+                }
+            }
+            case "KEYS" -> {
+                Pattern pattern = globToRegex(args.get(1));
+                List<String> keys = new ArrayList<>();
+                store.forEach((key, entry) -> {
+                    if (!entry.isExpired() && pattern.matcher(key).matches()) {
+                        keys.add(key);
+                    }
+                });
+                array(out, keys.size());
+                for (String key : keys) {
+                    bulk(out, key);
+                }
+            }
+            case "DBSIZE" -> integer(out, store.size());
+            case "FLUSHDB", "FLUSHALL" -> {
+                store.clear();
+                simple(out, "OK");
+            }
+            case "INFO" -> bulk(out, "# Server\r\nredis_version:7.0.0-embedded\r\n"
+                    + "# Memory\r\nused_memory:" + estimateMemory() + "\r\n");
+            default -> error(out, "ERR unknown command '" + args.get(0) + "'");
+        }
+        return false;
+    }
+
+    /**
+     * SET key value [EX s | PX ms | EXAT s | PXAT ms | KEEPTTL] [NX | XX] [GET]
+     */
+    private void set(List<String> args, OutputStream out) throws IOException {
+        String key = args.get(1);
+        String value = args.get(2);
+        long expireAt = 0;
+        boolean nx = false;
+        boolean xx = false;
+        boolean keepTtl = false;
+        boolean get = false;
+        for (int i = 3; i < args.size(); i++) {
+            switch (args.get(i).toUpperCase(Locale.ROOT)) {
+                case "EX" -> expireAt = expireAt(Long.parseLong(args.get(++i)) * 1000);
+                case "PX" -> expireAt = expireAt(Long.parseLong(args.get(++i)));
+                case "EXAT" -> expireAt = Long.parseLong(args.get(++i)) * 1000;
+                case "PXAT" -> expireAt = Long.parseLong(args.get(++i));
+                case "KEEPTTL" -> keepTtl = true;
+                case "NX" -> nx = true;
+                case "XX" -> xx = true;
+                case "GET" -> get = true;
+                default -> {
+                    error(out, "ERR syntax error");
+                    return;
+                }
+            }
+        }
+
+        long newExpireAt = expireAt;
+        boolean onlyIfAbsent = nx;
+        boolean onlyIfPresent = xx;
+        boolean keep = keepTtl;
+        Entry[] previous = new Entry[1];
+        boolean[] written = new boolean[1];
+        // compute对同一个键是原子的，保证SET NX在并发下只有一个客户端成功
+        store.compute(key, (k, existing) -> {
+            Entry live = existing != null && !existing.isExpired() ? existing : null;
+            previous[0] = live;
+            if ((onlyIfAbsent && live != null) || (onlyIfPresent && live == null)) {
+                return live;
+            }
+            written[0] = true;
+            long ttl = keep && live != null ? live.expireAtMillis : newExpireAt;
+            return new Entry(value, ttl);
+        });
+
+        if (get) {
+            bulk(out, previous[0] != null ? previous[0].value : null);
+        } else if (written[0]) {
+            simple(out, "OK");
+        } else {
+            bulk(out, null);
+        }
+    }
+
+    private String value(String key) {
+        Entry entry = store.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired()) {
+            store.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    private long estimateMemory() {
+        long bytes = 0;
+        for (Map.Entry<String, Entry> e : store.entrySet()) {
+            bytes += e.getKey().length() + e.getValue().value.length() + 64;
+        }
+        return bytes;
+    }
+
+    private static long expireAt(long ttlMillis) {
+        return System.currentTimeMillis() + ttlMillis;
+    }
+
+    private static Pattern globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for (char c : glob.toCharArray()) {
+            switch (c) {
+                case '*' -> regex.append(".*");
+                case '?' -> regex.append('.');
+                default -> regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    // ---------------------------------------------------------------- RESP
+
+    /**
+     * 读取一条RESP数组形式的命令；字节按ISO-8859-1映射为字符串，保证任意二进制值原样存取
+     */
+    private static List<String> readCommand(InputStream in) throws IOException {
+        int first = in.read();
+        if (first == -1) {
+            return null;
+        }
+        if (first != '*') {
+            throw new IOException("仅支持RESP数组形式的命令");
+        }
+        int count = Integer.parseInt(readLine(in));
+        List<String> args = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (in.read() != '$') {
+                throw new IOException("命令参数必须为bulk string");
+            }
+            int length = Integer.parseInt(readLine(in));
+            byte[] data = in.readNBytes(length);
+            if (data.length != length) {
+                throw new EOFException();
+            }
+            in.read(); // \r
+            in.read(); // \n
+            args.add(new String(data, StandardCharsets.ISO_8859_1));
+        }
+        return args;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        int c;
+        while ((c = in.read()) != '\r') {
+            if (c == -1) {
+                throw new EOFException();
+            }
+            sb.append((char) c);
+        }
+        in.read(); // \n
+        return sb.toString();
+    }
+
+    private static void simple(OutputStream out, String value) throws IOException {
+        out.write(('+' + value + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static void error(OutputStream out, String message) throws IOException {
+        out.write(('-' + message + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static void integer(OutputStream out, long value) throws IOException {
+        out.write((":" + value + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static void array(OutputStream out, int size) throws IOException {
+        out.write(("*" + size + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static void bulk(OutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.write("$-1\r\n".getBytes(StandardCharsets.ISO_8859_1));
+            return;
+        }
+        byte[] data = value.getBytes(StandardCharsets.ISO_8859_1);
+        out.write(("$" + data.length + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        out.write(data);
+        out.write("\r\n".getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private record Entry(String value, long expireAtMillis) {
+        boolean isExpired() {
+            return expireAtMillis > 0 && System.currentTimeMillis() >= expireAtMillis;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.shorturl.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多线程负载执行器
+ * 所有线程同时开始，每次操作单独计时，汇总吞吐量和延迟分位数
+ */
+public final class LoadRunner {
+
+    /**
+     * 单次操作，参数为线程序号和该线程内的操作序号
+     */
+    @FunctionalInterface
+    public interface Operation {
+        void run(int thread, int iteration) throws Exception;
+    }
+
+    private LoadRunner() {
+    }
+
+    public static Result run(String name, int threads, int opsPerThread, Operation operation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> futures = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                long[] latencies = new long[opsPerThread];
+                start.await();
+                for (int i = 0; i < opsPerThread; i++) {
+                    long begin = System.nanoTime();
+                    operation.run(thread, i);
+                    latencies[i] = System.nanoTime() - begin;
+                }
+                return latencies;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        long[] all = new long[threads * opsPerThread];
+        int offset = 0;
+        for (Future<long[]> future : futures) {
+            long[] latencies = future.get(5, TimeUnit.MINUTES);
+            System.arraycopy(latencies, 0, all, offset, latencies.length);
+            offset += latencies.length;
+        }
+        long elapsed = System.nanoTime() - begin;
+        executor.shutdown();
+
+        Arrays.sort(all);
+        Result result = new Result(name, all.length, elapsed, percentile(all, 0.50), percentile(all, 0.99), all[all.length - 1]);
+        System.out.println(result);
+        return result;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    /**
+     * 负载结果，延迟单位为纳秒
+     */
+    public record Result(String name, int operations, long elapsedNanos, long p50Nanos, long p99Nanos, long maxNanos) {
+
+        public double throughput() {
+            return operations / (elapsedNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("[%s] 请求=%d, 吞吐=%.0f ops/s, p50=%.2fms, p99=%.2fms, max=%.2fms",
+                    name, operations, throughput(), p50Nanos / 1e6, p99Nanos / 1e6, maxNanos / 1e6);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.shorturl.support;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * 离线集成测试基类
+ * 使用 test 配置（H2 MySQL兼容模式）并把Redis指向进程内协议替身，无需外部MySQL和Redis
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public abstract class OfflineTestSupport {
+
+    @DynamicPropertySource
+    static void embeddedRedis(DynamicPropertyRegistry registry) {
+        EmbeddedRedisServer redis = EmbeddedRedisServer.shared();
+        registry.add("spring.data.redis.host", redis::getHost);
+        registry.add("spring.data.redis.port", redis::getPort);
+    }
+}
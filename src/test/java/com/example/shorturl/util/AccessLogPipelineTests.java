@@ -0,0 +1,99 @@
+package com.example.shorturl.util;
+
+import com.example.shorturl.support.LoadRunner;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 异步访问日志管道测试，吞吐量对比见 load 包下的 AccessLogBenchmarkTests
+ */
+class AccessLogPipelineTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void eventsAreWrittenAsJsonLines() throws Exception {
+        try (AccessLogPipeline pipeline = new AccessLogPipeline(dir, "access", 64, 1024 * 1024, 3)) {
+            pipeline.offer("REDIRECT", "abc123", "https://example.com/a?q=\"1\"", 302, 1_500_000);
+            pipeline.offer("SHORTEN", null, "https://example.com/中文", 200, 2_000);
+            pipeline.awaitDrained(1000);
+        }
+
+        List<String> lines = Files.readAllLines(dir.resolve("access.log"), StandardCharsets.UTF_8);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).matches("\\{\"ts\":\\d+,\"route\":\"REDIRECT\",\"status\":302,\"latency_us\":1500,"
+                + "\"code\":\"abc123\",\"target\":\"https://example.com/a\\?q=\\\\\"1\\\\\"\"}"), lines.get(0));
+        assertTrue(lines.get(1).endsWith("\"target\":\"https://example.com/中文\"}"), lines.get(1));
+    }
+
+    @Test
+    void filesRollBySizeAndKeepLimitedHistory() throws Exception {
+        try (AccessLogPipeline pipeline = new AccessLogPipeline(dir, "access", 16, 200, 2)) {
+            for (int i = 0; i < 20; i++) {
+                pipeline.offer("REDIRECT", "code" + i, "https://example.com/" + i, 302, 1000);
+                pipeline.awaitDrained(1000);
+            }
+        }
+
+        List<String> rolled;
+        try (Stream<Path> files = Files.list(dir)) {
+            rolled = files.map(p -> p.getFileName().toString()).filter(name -> !name.equals("access.log")).toList();
+        }
+        assertEquals(2, rolled.size(), rolled.toString());
+        assertTrue(rolled.stream().allMatch(name -> name.matches("access\\.\\d{8}\\.\\d+\\.log")), rolled.toString());
+    }
+
+    @Test
+    void sizeLimitCountsEncodedBytesNotChars() throws Exception {
+        assertEquals(8, AccessLogPipeline.utf8Length("a中\uD83D\uDE00")); // 1 + 3 + 4
+
+        // 每行约一半是中文：按字符数计时一个文件能装下3行，远超字节上限
+        String target = "https://example.com/" + "中".repeat(40);
+        try (AccessLogPipeline pipeline = new AccessLogPipeline(dir, "access", 16, 300, 10)) {
+            for (int i = 0; i < 6; i++) {
+                pipeline.offer("REDIRECT", "code" + i, target, 302, 1000);
+                pipeline.awaitDrained(1000);
+            }
+        }
+
+        List<Path> rolled;
+        try (Stream<Path> files = Files.list(dir)) {
+            rolled = files.filter(p -> !p.getFileName().toString().equals("access.log")).toList();
+        }
+        assertTrue(rolled.size() >= 2, rolled.toString());
+        long lineBytes = Files.readAllLines(rolled.get(0), StandardCharsets.UTF_8).get(0).getBytes(StandardCharsets.UTF_8).length + 1;
+        for (Path file : rolled) {
+            // 滚动在写入每批之前检查，最多超出一行
+            assertTrue(Files.size(file) < 300 + lineBytes, file + " size=" + Files.size(file));
+        }
+    }
+
+    @Test
+    void concurrentProducersNeverLoseOrCorruptPublishedEvents() throws Exception {
+        int threads = 8;
+        int perThread = 5_000;
+        try (AccessLogPipeline pipeline = new AccessLogPipeline(dir, "access", 1024, 100L * 1024 * 1024, 3)) {
+            LoadRunner.run("ring-offer", threads, perThread, (thread, i) ->
+                    pipeline.offer("REDIRECT", "t" + thread, "https://example.com/" + thread + "/" + i, 302, 1000));
+            pipeline.awaitDrained(5000);
+
+            assertEquals((long) threads * perThread, pipeline.getWritten() + pipeline.getDropped());
+            List<String> lines = Files.readAllLines(dir.resolve("access.log"), StandardCharsets.UTF_8);
+            assertEquals(pipeline.getWritten(), lines.size());
+            // 槽位被复用时字段不能串到其他事件上
+            for (String line : lines) {
+                assertTrue(line.matches(".*\"code\":\"t(\\d+)\",\"target\":\"https://example\\.com/\\1/\\d+\"}"), line);
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.shorturl.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AliasBlocklistTests {
+
+    private AliasBlocklist blocklist;
+
+    @BeforeEach
+    void setUp() {
+        blocklist = new AliasBlocklist();
+        ReflectionTestUtils.setField(blocklist, "minLength", 3);
+        ReflectionTestUtils.setField(blocklist, "maxLength", 32);
+        ReflectionTestUtils.setField(blocklist, "reservedWords", List.of("api", "admin", "actuator"));
+        ReflectionTestUtils.setField(blocklist, "blockedTerms", List.of("scam", "phish"));
+        blocklist.init();
+    }
+
+    @Test
+    void reservedWordsMatchWholeAliasOnly() {
+        assertTrue(blocklist.isBlocked("api"));
+        assertTrue(blocklist.isBlocked("ADMIN"));
+        assertTrue(blocklist.isBlocked("a-p_i"));
+        assertFalse(blocklist.isBlocked("apiary"));
+        assertFalse(blocklist.isBlocked("my-admin-guide"));
+    }
+
+    @Test
+    void blockedTermsMatchAnywhere() {
+        assertTrue(blocklist.isBlocked("free-scam-offer"));
+        assertTrue(blocklist.isBlocked("PhIsH"));
+        assertTrue(blocklist.isBlocked("s-c-a-m"));
+        assertFalse(blocklist.isBlocked("scale-up"));
+    }
+
+    @Test
+    void checkValidatesFormatAndLength() {
+        assertDoesNotThrow(() -> blocklist.check("spring-sale"));
+        assertDoesNotThrow(() -> blocklist.check("Q3_launch"));
+        assertThrows(IllegalArgumentException.class, () -> blocklist.check("ab"));
+        assertThrows(IllegalArgumentException.class, () -> blocklist.check("-spring"));
+        assertThrows(IllegalArgumentException.class, () -> blocklist.check("spring sale"));
+        assertThrows(IllegalArgumentException.class, () -> blocklist.check("a".repeat(33)));
+        assertThrows(AliasUnavailableException.class, () -> blocklist.check("actuator"));
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.shorturl.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CacheTtlPolicyTests {
+
+    private CacheTtlPolicy policy;
+
+    @BeforeEach
+    void setUp() {
+        policy = new CacheTtlPolicy(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(policy, "initialTtlSeconds", 10L);
+        ReflectionTestUtils.setField(policy, "maxTtlSeconds", 40L);
+        ReflectionTestUtils.setField(policy, "earlyRefreshBeta", 1.0);
+        ReflectionTestUtils.setField(policy, "jitterRatio", 0.0);
+        ReflectionTestUtils.setField(policy, "maxTrackedKeys", 100);
+    }
+
+    @Test
+    void ttlDoublesEachTimeHitsDoubleUpToMax() {
+        assertEquals(10, policy.ttlOnWrite("a", null));
+
+        assertEquals(0, policy.ttlOnHit("a", null));   // 1次：初始档位
+        assertEquals(20, policy.ttlOnHit("a", null));  // 2次
+        assertEquals(0, policy.ttlOnHit("a", null));   // 3次：仍在同一档位
+        assertEquals(40, policy.ttlOnHit("a", null));  // 4次
+        for (int i = 5; i <= 8; i++) {
+            assertEquals(0, policy.ttlOnHit("a", null)); // 已达上限
+        }
+    }
+
+    @Test
+    void ttlNeverExceedsRemainingLifetime() {
+        LocalDateTime expireAt = LocalDateTime.now().plusSeconds(15);
+        long ttl = policy.ttlOnWrite("a", expireAt);
+        assertTrue(ttl > 0 && ttl <= 15, "ttl=" + ttl);
+
+        policy.ttlOnHit("a", expireAt);
+        long promoted = policy.ttlOnHit("a", expireAt);
+        assertTrue(promoted <= 15, "promoted=" + promoted);
+
+        assertTrue(policy.ttlOnWrite("expired", LocalDateTime.now().minusSeconds(1)) <= 0);
+    }
+
+    @Test
+    void jitterStaysWithinRatio() {
+        ReflectionTestUtils.setField(policy, "initialTtlSeconds", 1000L);
+        ReflectionTestUtils.setField(policy, "maxTtlSeconds", 1000L);
+        ReflectionTestUtils.setField(policy, "jitterRatio", 0.1);
+
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < 50; i++) {
+            long ttl = policy.ttlOnWrite("k" + i, null);
+            assertTrue(ttl >= 900 && ttl <= 1000, "ttl=" + ttl);
+            seen.add(ttl);
+        }
+        assertTrue(seen.size() > 1, "过期时间应被打散");
+    }
+
+    @Test
+    void refreshesEarlyWhenCachedEntryIsAboutToExpire() {
+        assertEquals(10, policy.ttlOnWrite("a", null));
+        ReflectionTestUtils.setField(stats("a"), "deadlineMillis", System.currentTimeMillis() - 1);
+
+        assertEquals(10, policy.ttlOnHit("a", null));
+    }
+
+    @Test
+    void unknownLifetimeIsNeverExtended() {
+        assertEquals(0, policy.ttlOnHit("other-node", null));
+        assertEquals(0, policy.ttlOnHit("other-node", null));
+    }
+
+    @Test
+    void newHotKeysAreTrackedAfterCapacityIsReached() {
+        ReflectionTestUtils.setField(policy, "maxTrackedKeys", 4);
+        for (int i = 0; i < 4; i++) {
+            policy.ttlOnWrite("cold" + i, null);
+        }
+        for (int i = 0; i < 8; i++) {
+            policy.ttlOnHit("cold0", null);
+        }
+
+        assertEquals(10, policy.ttlOnWrite("hot", null));
+        policy.ttlOnHit("hot", null);
+        assertEquals(20, policy.ttlOnHit("hot", null));
+
+        assertEquals(4, trackedKeys().size());
+        assertTrue(trackedKeys().containsKey("cold0"), "访问最多的键不应被淘汰");
+    }
+
+    @Test
+    void sweepDecaysHitsAndDropsExpiredStats() {
+        policy.ttlOnWrite("a", null);
+        for (int i = 0; i < 4; i++) {
+            policy.ttlOnHit("a", null);
+        }
+        policy.ttlOnWrite("b", null);
+        ReflectionTestUtils.setField(stats("b"), "deadlineMillis", System.currentTimeMillis() - 1);
+
+        policy.sweep();
+
+        assertEquals(2, ((AtomicLong) ReflectionTestUtils.getField(stats("a"), "hits")).get());
+        assertFalse(trackedKeys().containsKey("b"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> trackedKeys() {
+        return (Map<String, Object>) ReflectionTestUtils.getField(policy, "trackedKeys");
+    }
+
+    private Object stats(String shortCode) {
+        return trackedKeys().get(shortCode);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.shorturl.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CircuitBreakerTests {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private final CircuitBreaker breaker = new CircuitBreaker("test", 3, 1000, 100, now::get);
+
+    @Test
+    void opensAfterConsecutiveFailuresAndRejectsCalls() {
+        for (int i = 0; i < 3; i++) {
+            assertThrows(RuntimeException.class, () -> breaker.call(this::fail));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertThrows(DependencyUnavailableException.class, () -> breaker.call(() -> "ok"));
+    }
+
+    @Test
+    void successResetsFailureCount() {
+        assertThrows(RuntimeException.class, () -> breaker.call(this::fail));
+        assertThrows(RuntimeException.class, () -> breaker.call(this::fail));
+        breaker.call(() -> "ok");
+        assertThrows(RuntimeException.class, () -> breaker.call(this::fail));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void slowCallsCountAsFailuresButStillReturn() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals("slow", breaker.call(() -> {
+                now.addAndGet(TimeUnit.MILLISECONDS.toNanos(150));
+                return "slow";
+            }));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void halfOpenProbeClosesOrReopens() {
+        for (int i = 0; i < 3; i++) {
+            assertThrows(RuntimeException.class, () -> breaker.call(this::fail));
+        }
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        assertThrows(RuntimeException.class, () -> breaker.call(this::fail));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        assertEquals("ok", breaker.call(() -> "ok"));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void errorDuringHalfOpenProbeReleasesTheProbe() {
+        for (int i = 0; i < 3; i++) {
+            assertThrows(RuntimeException.class, () -> breaker.call(this::fail));
+        }
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        assertThrows(StackOverflowError.class, () -> breaker.call(() -> {
+            throw new StackOverflowError();
+        }));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        // 探测名额已释放，下一个熔断周期结束后可以再次探测并恢复
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        assertEquals("ok", breaker.call(() -> "ok"));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    private String fail() {
+        throw new IllegalStateException("依赖不可用");
+    }
+}
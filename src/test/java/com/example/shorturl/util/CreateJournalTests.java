@@ -0,0 +1,98 @@
+package com.example.shorturl.util;
+
+import com.example.shorturl.model.ShortUrl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 创建日志的崩溃恢复测试
+ * "崩溃"通过不关闭旧实例、直接用新实例打开同一文件模拟，记录在append返回前已fsync
+ */
+class CreateJournalTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void uncommittedEntriesAreReplayedAfterCrash() throws Exception {
+        Path file = dir.resolve("create.journal");
+        CreateJournal journal = new CreateJournal(file, 16);
+        journal.append(shortUrl("aaa111", "https://example.com/a")).get(1, TimeUnit.SECONDS);
+        journal.append(shortUrl("bbb222", "https://example.com/中文?q=1|2")).get(1, TimeUnit.SECONDS);
+        journal.append(shortUrl("ccc333", "https://example.com/c")).get(1, TimeUnit.SECONDS);
+        journal.markCommitted(List.of("aaa111"));
+        // 等待提交标记落盘
+        journal.append(shortUrl("ddd444", "https://example.com/d")).get(1, TimeUnit.SECONDS);
+
+        List<ShortUrl> replayed = new CreateJournal(file, 16).replay();
+
+        assertEquals(List.of("bbb222", "ccc333", "ddd444"), replayed.stream().map(ShortUrl::getShortCode).toList());
+        assertEquals("https://example.com/中文?q=1|2", replayed.get(0).getLongUrl());
+        assertEquals(0L, replayed.get(0).getVisitCount());
+    }
+
+    @Test
+    void tornTailIsIgnoredAndDoesNotCorruptLaterRecords() throws Exception {
+        Path file = dir.resolve("create.journal");
+        CreateJournal journal = new CreateJournal(file, 16);
+        journal.append(shortUrl("aaa111", "https://example.com/a")).get(1, TimeUnit.SECONDS);
+        // 模拟崩溃时写了一半的记录
+        Files.write(file, "A|bbb222|17".getBytes(StandardCharsets.US_ASCII), StandardOpenOption.APPEND);
+
+        CreateJournal reopened = new CreateJournal(file, 16);
+        assertEquals(List.of("aaa111"), reopened.replay().stream().map(ShortUrl::getShortCode).toList());
+
+        reopened.append(shortUrl("ccc333", "https://example.com/c")).get(1, TimeUnit.SECONDS);
+        assertEquals(List.of("aaa111", "ccc333"), reopened.replay().stream().map(ShortUrl::getShortCode).toList());
+        reopened.close();
+    }
+
+    @Test
+    void journalIsTruncatedOnceEverythingIsCommitted() throws Exception {
+        Path file = dir.resolve("create.journal");
+        CreateJournal journal = new CreateJournal(file, 16);
+        journal.append(shortUrl("aaa111", "https://example.com/a")).get(1, TimeUnit.SECONDS);
+        journal.markCommitted(List.of("aaa111"));
+        journal.close();
+
+        assertEquals(0, Files.size(file));
+        assertTrue(new CreateJournal(file, 16).replay().isEmpty());
+    }
+
+    @Test
+    void concurrentAppendsAreGroupCommitted() throws Exception {
+        Path file = dir.resolve("create.journal");
+        CreateJournal journal = new CreateJournal(file, 64);
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[200];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = journal.append(shortUrl(String.format("c%05d", i), "https://example.com/" + i));
+        }
+        CompletableFuture.allOf(futures).get(5, TimeUnit.SECONDS);
+        journal.close();
+
+        List<ShortUrl> replayed = new CreateJournal(file, 64).replay();
+        assertEquals(200, replayed.size());
+    }
+
+    private static ShortUrl shortUrl(String code, String longUrl) {
+        ShortUrl shortUrl = new ShortUrl();
+        shortUrl.setShortCode(code);
+        shortUrl.setLongUrl(longUrl);
+        shortUrl.setCreatedAt(LocalDateTime.now().withNano(0));
+        shortUrl.setVisitCount(0L);
+        shortUrl.setExpireAt(LocalDateTime.now().plusDays(7).withNano(0));
+        return shortUrl;
+    }
+}
@@ -0,0 +1,27 @@
+-- 与 sql/init.sql 一致的表结构，供H2（MySQL兼容模式）使用
+CREATE TABLE IF NOT EXISTS short_url
+(
+    id          BIGINT PRIMARY KEY AUTO_INCREMENT,
+    short_code  VARCHAR(64) NOT NULL UNIQUE,
+    long_url    TEXT        NOT NULL,
+    created_at  DATETIME    NOT NULL,
+    visit_count BIGINT DEFAULT 0,
+    expire_at   DATETIME    NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_short_code ON short_url (short_code);
+
+CREATE INDEX IF NOT EXISTS idx_expire_at ON short_url (expire_at);
+
+CREATE TABLE IF NOT EXISTS short_url_archive
+(
+    id          BIGINT PRIMARY KEY,
+    short_code  VARCHAR(64) NOT NULL,
+    long_url    TEXT        NOT NULL,
+    created_at  DATETIME    NOT NULL,
+    visit_count BIGINT DEFAULT 0,
+    expire_at   DATETIME    NULL,
+    archived_at DATETIME    NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_archive_short_code ON short_url_archive (short_code);
@@ -0,0 +1,3 @@
+-- 启动基准测试使用的固定短链接，子进程启动后持续请求 /bench1 直到返回302
+INSERT INTO short_url (short_code, long_url, created_at, visit_count, expire_at)
+VALUES ('bench1', 'https://www.example.com/startup', CURRENT_TIMESTAMP, 0, DATEADD('DAY', 7, CURRENT_TIMESTAMP));